@@ -0,0 +1,69 @@
+package moleep.screenmate.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.JwtProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 하는 액세스 토큰 검증 비용. 미리 만든 키/파서, 검증 캐시 적중, 요청마다 키와 파서를 새로 만드는 이전 방식을 비교한다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtTokenProviderBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-at-least-256-bits-long-for-hs256-signing";
+
+    private JwtTokenProvider prebuilt;
+    private JwtTokenProvider cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        prebuilt = provider(0);
+        cached = provider(10_000);
+        token = prebuilt.generateAccessToken(UUID.randomUUID(), "mochi@example.com");
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken prebuiltParser() {
+        return prebuilt.verify(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifiedTokenCache() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Claims parserPerRequest() {
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    private JwtTokenProvider provider(long verifiedTokenCacheSize) {
+        JwtProperties properties = new JwtProperties();
+        properties.setSecret(SECRET);
+        properties.setVerifiedTokenCacheSize(verifiedTokenCacheSize);
+        JwtTokenProvider provider = new JwtTokenProvider(properties, new SimpleMeterRegistry());
+        provider.init();
+        return provider;
+    }
+}
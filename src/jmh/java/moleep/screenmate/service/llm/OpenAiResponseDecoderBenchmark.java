@@ -0,0 +1,90 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.JacksonConfig;
+import moleep.screenmate.dto.llm.LlmGenerateResponse;
+import moleep.screenmate.validation.ActionWhitelistValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 응답 디코딩: JsonParser 한 번 훑기(OpenAiResponseDecoder)와 이전 방식인 readTree 두 번 + 노드 변환을 비교한다.
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm으로 본다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenAiResponseDecoderBenchmark {
+
+    private static final String CONTENT = """
+            {"message":"또 버그 잡는 중이야? 커피 한 잔 하고 해!","emotion":"playful",\
+            "screenDescription":"IDE에 Java 코드와 실패한 테스트 로그가 열려 있다","intimacyDelta":0.1,\
+            "actions":[{"type":"SPEAK","params":[{"key":"text","value":"힘내!"},{"key":"duration","value":3}]},\
+            {"type":"EMOTE","params":[{"key":"emotion","value":"wink"}]},\
+            {"type":"MOVE","params":[{"key":"x","value":120},{"key":"y","value":48}]}]}""";
+
+    private ObjectMapper objectMapper;
+    private OpenAiResponseDecoder decoder;
+    private ActionWhitelistValidator actionWhitelistValidator;
+    private String response;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new JacksonConfig().objectMapper();
+        actionWhitelistValidator = new ActionWhitelistValidator();
+        decoder = new OpenAiResponseDecoder(objectMapper, actionWhitelistValidator, new SimpleMeterRegistry());
+        response = """
+                {"id":"chatcmpl-1","object":"chat.completion","created":1700000000,"model":"gpt-4o-mini",\
+                "choices":[{"index":0,"message":{"role":"assistant","content":%s,"refusal":null},\
+                "logprobs":null,"finish_reason":"stop"}],\
+                "usage":{"prompt_tokens":1820,"completion_tokens":96,"total_tokens":1916,\
+                "prompt_tokens_details":{"cached_tokens":1536}}}""".formatted(objectMapper.writeValueAsString(CONTENT));
+    }
+
+    @Benchmark
+    public LlmGenerateResponse streamingDecoder() {
+        return decoder.decodeContent(decoder.decodeCompletion(response).content());
+    }
+
+    @Benchmark
+    public LlmGenerateResponse treeParse() throws Exception {
+        JsonNode root = objectMapper.readTree(response);
+        JsonNode usage = root.path("usage");
+        usage.path("total_tokens").asInt();
+        JsonNode content = objectMapper.readTree(root.path("choices").get(0).path("message").path("content").asText());
+
+        List<LlmGenerateResponse.Action> actions = new ArrayList<>();
+        for (JsonNode actionNode : content.path("actions")) {
+            Map<String, Object> params = new HashMap<>();
+            for (JsonNode param : actionNode.path("params")) {
+                JsonNode value = param.path("value");
+                params.put(param.path("key").asText(), value.isNumber() ? value.numberValue() : value.asText());
+            }
+            actions.add(LlmGenerateResponse.Action.builder()
+                    .type(actionNode.path("type").asText(null))
+                    .params(params)
+                    .build());
+        }
+
+        return LlmGenerateResponse.builder()
+                .message(content.path("message").asText(null))
+                .emotion(content.path("emotion").asText(null))
+                .screenDescription(content.path("screenDescription").asText(null))
+                .intimacyDelta(content.path("intimacyDelta").asDouble())
+                .actions(actionWhitelistValidator.filterActions(actions))
+                .build();
+    }
+}
@@ -0,0 +1,77 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.ScreenshotProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QHD 데스크톱 스크린샷 한 장을 축소하고 JPEG으로 재인코딩하는 비용(dHash 포함). 입력 형식별로 잰다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ScreenshotProcessorBenchmark {
+
+    @Param({"png", "jpeg"})
+    private String format;
+
+    private ScreenshotProcessor processor;
+    private MockMultipartFile screenshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        processor = new ScreenshotProcessor(new ScreenshotProperties(), new SimpleMeterRegistry());
+        processor.initMetrics();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(desktop(2560, 1440), format, out);
+        screenshot = new MockMultipartFile("screenshot", "screen." + format, "image/" + format, out.toByteArray());
+    }
+
+    @Benchmark
+    public ProcessedScreenshot process() throws IOException {
+        return processor.process(screenshot);
+    }
+
+    /**
+     * 그라데이션 배경 위에 창과 글자를 그린 화면. 단색 이미지보다 실제 압축률에 가깝다
+     */
+    private BufferedImage desktop(int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, new Color(32, 64, 128), width, height, new Color(200, 120, 60)));
+        g.fillRect(0, 0, width, height);
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        for (int window = 0; window < 4; window++) {
+            int x = 80 + window * 560;
+            int y = 60 + window * 180;
+            g.setColor(new Color(30, 30, 30));
+            g.fillRect(x, y, 1100, 800);
+            g.setColor(new Color(180, 220, 160));
+            for (int line = 0; line < 45; line++) {
+                g.drawString("public void handle(Request request) { return service.process(" + line + "); }",
+                        x + 16, y + 24 + line * 17);
+            }
+        }
+        g.dispose();
+        return image;
+    }
+}
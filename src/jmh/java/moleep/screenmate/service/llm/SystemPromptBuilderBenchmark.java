@@ -0,0 +1,73 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.config.PromptProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.conversation.CharacterConversation;
+import moleep.screenmate.domain.memory.CharacterQaMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청마다 실행되는 시스템 프롬프트 조립 비용. 학습된 정보가 많아 예산에서 잘려 나가는 경우를 함께 잰다
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SystemPromptBuilderBenchmark {
+
+    @Param({"10", "100"})
+    private int memoryEntries;
+
+    private SystemPromptBuilder builder;
+    private Character character;
+    private CharacterQaMemory qaMemory;
+    private List<ConversationTurn> recentTurns;
+
+    @Setup
+    public void setUp() {
+        builder = new SystemPromptBuilder(new TokenCounter(new OpenAiProperties()), new PromptProperties(),
+                new SimpleMeterRegistry());
+        builder.init();
+
+        character = Character.builder()
+                .id(UUID.randomUUID())
+                .name("모찌")
+                .species("고양이")
+                .personality("장난스럽고 호기심이 많음")
+                .build();
+
+        Map<String, String> qaData = new HashMap<>();
+        qaData.put(ConversationSummarizer.SUMMARY_KEY, "사용자는 요즘 백엔드 리팩터링과 마감 때문에 바쁘다. ".repeat(20));
+        for (int i = 0; i < memoryEntries; i++) {
+            qaData.put("fact_" + i, "사용자가 좋아하는 것 " + i + "번: 주말 아침의 라떼와 고양이 영상");
+        }
+        qaMemory = CharacterQaMemory.builder().qaData(qaData).build();
+
+        recentTurns = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            CharacterConversation.Role role = i % 2 == 0
+                    ? CharacterConversation.Role.USER : CharacterConversation.Role.ASSISTANT;
+            recentTurns.add(new ConversationTurn(UUID.randomUUID(), role, "오늘 " + i + "번째 이야기: 코드 리뷰가 끝이 안 나"));
+        }
+    }
+
+    @Benchmark
+    public String build() {
+        return builder.build(character, qaMemory, recentTurns, "IDE에 Java 코드가 열려 있다");
+    }
+}
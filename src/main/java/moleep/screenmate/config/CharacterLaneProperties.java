@@ -0,0 +1,15 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.lane")
+@Getter
+@Setter
+public class CharacterLaneProperties {
+
+    private int maxQueuedPerCharacter = 4;
+}
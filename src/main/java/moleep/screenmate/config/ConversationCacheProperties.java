@@ -0,0 +1,19 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.conversation-cache")
+@Getter
+@Setter
+public class ConversationCacheProperties {
+
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+}
@@ -0,0 +1,28 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.conversation-retention")
+@Getter
+@Setter
+public class ConversationRetentionProperties {
+
+    private boolean enabled = true;
+    private int keepTurns = 200;
+    private int batchSize = 500;
+    private Duration batchPause = Duration.ofMillis(50);
+
+    /**
+     * character_conversations가 파티션 테이블일 때 미리 만들어 둘 월 파티션 수 (이번 달 이후).
+     * 파티션 테이블이 아니면 아무것도 하지 않는다
+     */
+    private boolean partitionMaintenance = true;
+    private int partitionMonthsAhead = 3;
+    private Duration partitionCheckInterval = Duration.ofHours(6);
+}
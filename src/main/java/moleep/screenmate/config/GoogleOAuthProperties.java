@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "google.oauth")
 @Getter
@@ -13,4 +15,23 @@ public class GoogleOAuthProperties {
 
     private String clientId;
     private String clientSecret;
+
+    private String certsUrl = "https://www.googleapis.com/oauth2/v1/certs";
+    private String tokenBaseUrl = "https://oauth2.googleapis.com";
+
+    // 공개 키는 Cache-Control max-age만큼 캐시하고, 만료 전에 백그라운드에서 미리 갱신한다
+    private Duration keysRefreshAhead = Duration.ofMinutes(10);
+    private Duration keysRefreshCheckInterval = Duration.ofMinutes(1);
+    // 갱신이 실패해도 만료 후 이 시간까지는 이전 키로 검증한다
+    private Duration keysStaleGrace = Duration.ofHours(6);
+    // 캐시에 없는 키로 서명된 토큰이 오면 키를 다시 받되, 이 간격에 한 번만
+    private Duration keysUnknownKeyRefetchInterval = Duration.ofSeconds(30);
+
+    // 토큰 교환용 WebClient
+    private int maxConnections = 20;
+    // 로그인은 드물게 몰리므로 유휴 커넥션은 Google 쪽 타임아웃보다 먼저 정리한다
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration evictInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration responseTimeout = Duration.ofSeconds(10);
 }
@@ -17,6 +17,17 @@ public class JwtProperties {
     private Duration accessTokenExpiry = Duration.ofMinutes(15);
     private Duration refreshTokenExpiry = Duration.ofDays(30);
 
+    // 인증 주체 조회 방식 (cached: DB 조회 결과를 캐시, stateless: 토큰 클레임만 사용)
+    private PrincipalMode principalMode = PrincipalMode.CACHED;
+    private Duration principalCacheTtl = Duration.ofMinutes(5);
+    private long principalCacheMaxSize = 100_000;
+    // 0이면 검증 결과를 캐시하지 않음
+    private long verifiedTokenCacheSize = 0;
+
+    public enum PrincipalMode {
+        CACHED, STATELESS
+    }
+
     public long getAccessTokenExpiryMillis() {
         return accessTokenExpiry.toMillis();
     }
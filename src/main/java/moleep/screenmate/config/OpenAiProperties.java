@@ -5,6 +5,8 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+
 @Configuration
 @ConfigurationProperties(prefix = "openai")
 @Getter
@@ -14,4 +16,45 @@ public class OpenAiProperties {
     private String apiKey;
     private String model = "gpt-4o-mini";
     private String baseUrl = "https://api.openai.com";
+
+    // 커넥션 풀
+    private int maxConnections = 50;
+    private int pendingAcquireMaxCount = 200;
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictInterval = Duration.ofSeconds(30);
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration responseTimeout = Duration.ofSeconds(60);
+    private boolean http2 = false;
+    private int warmUpConnections = 2;
+
+    // 지연 예산
+    private Duration requestTimeout = Duration.ofSeconds(30);
+    private Duration streamFirstTokenTimeout = Duration.ofSeconds(15);
+    private Duration streamIdleTimeout = Duration.ofSeconds(10);
+
+    // 서킷 브레이커
+    private float circuitFailureRateThreshold = 50;
+    private float circuitSlowCallRateThreshold = 80;
+    private Duration circuitSlowCallDuration = Duration.ofSeconds(20);
+    private int circuitWindowSize = 20;
+    private int circuitMinimumCalls = 10;
+    private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+    // 요약처럼 멱등한 호출의 헤지 요청
+    private boolean hedgeEnabled = false;
+    private Duration hedgeDelay = Duration.ofSeconds(8);
+
+    // 조직 단위 TPM/RPM 할당량
+    private boolean quotaEnabled = true;
+    private long quotaTokensPerMinute = 200_000;
+    private long quotaRequestsPerMinute = 500;
+    private Duration quotaInteractiveMaxWait = Duration.ofSeconds(3);
+    private Duration quotaBackgroundMaxWait = Duration.ofSeconds(30);
+    private double quotaBackgroundReserve = 0.2;
+    private int quotaMaxWaiting = 200;
+    // 공유 버킷에서 한 번에 빌려 오는 몫(분당 한도 대비 비율)과 쓰지 않은 몫을 돌려주는 주기
+    private double quotaLeaseFraction = 0.05;
+    private Duration quotaLeaseFlushInterval = Duration.ofSeconds(5);
 }
@@ -0,0 +1,15 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.prompt")
+@Getter
+@Setter
+public class PromptProperties {
+
+    private int maxTokens = 3000;
+}
@@ -2,32 +2,43 @@ package moleep.screenmate.config;
 
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import moleep.screenmate.security.ratelimit.BucketStore;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @RequiredArgsConstructor
 public class RateLimitConfig {
 
+    private static final String LLM_KEY_PREFIX = "llm:";
+
     private final RateLimitProperties rateLimitProperties;
-    private final Map<UUID, Bucket> userBuckets = new ConcurrentHashMap<>();
+    private final BucketStore bucketStore;
+
+    private BucketConfiguration llmConfiguration;
+
+    @PostConstruct
+    void init() {
+        llmConfiguration = buildLlmConfiguration();
+    }
 
     public Bucket resolveBucket(UUID userId) {
-        return userBuckets.computeIfAbsent(userId, this::newBucket);
+        return bucketStore.resolve(LLM_KEY_PREFIX + userId, llmConfiguration);
     }
 
-    private Bucket newBucket(UUID userId) {
+    private BucketConfiguration buildLlmConfiguration() {
+        int requestsPerMinute = rateLimitProperties.getLlm().getRequestsPerMinute();
         Bandwidth limit = Bandwidth.builder()
-                .capacity(rateLimitProperties.getRequestsPerMinute())
-                .refillGreedy(rateLimitProperties.getRequestsPerMinute(), Duration.ofMinutes(1))
+                .capacity(requestsPerMinute)
+                .refillGreedy(requestsPerMinute, Duration.ofMinutes(1))
                 .build();
 
-        return Bucket.builder()
+        return BucketConfiguration.builder()
                 .addLimit(limit)
                 .build();
     }
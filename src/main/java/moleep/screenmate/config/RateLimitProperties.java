@@ -5,11 +5,51 @@ import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
-@ConfigurationProperties(prefix = "rate-limit.llm")
+@ConfigurationProperties(prefix = "rate-limit")
 @Getter
 @Setter
 public class RateLimitProperties {
 
-    private int requestsPerMinute = 60;
+    /**
+     * local: 인스턴스별 메모리 버킷, postgres: 모든 인스턴스가 공유하는 DB 버킷
+     */
+    private String backend = "local";
+    private long maxBuckets = 1_000_000;
+    private Llm llm = new Llm();
+    private Postgres postgres = new Postgres();
+
+    /**
+     * API 전역 필터의 라우트 그룹. 요청 경로에 처음 일치하는 그룹이 적용되고, 키는 로그인 사용자 또는 IP
+     */
+    private List<Route> routes = new ArrayList<>();
+
+    @Getter
+    @Setter
+    public static class Llm {
+        private int requestsPerMinute = 60;
+    }
+
+    @Getter
+    @Setter
+    public static class Route {
+        private String name;
+        private List<String> paths = new ArrayList<>();
+        private long capacity = 60;
+        private Duration period = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Postgres {
+        // DB와 동기화하기 전까지 로컬에서 소비할 수 있는 최대 토큰 수 / 시간
+        private long maxUnsyncedTokens = 5;
+        private Duration maxUnsyncedTime = Duration.ofSeconds(1);
+        private Duration cleanupInterval = Duration.ofMinutes(5);
+        private int cleanupBatchSize = 1000;
+    }
 }
@@ -0,0 +1,24 @@
+package moleep.screenmate.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+@Configuration
+@EnableScheduling
+public class SchedulerConfig {
+
+    private static final int JDBC_QUEUED_TASK_CAP = 10_000;
+
+    /**
+     * 리액티브 파이프라인에서 JPA(블로킹) 호출을 격리하는 스케줄러.
+     * 스레드 수를 커넥션 풀 크기에 맞춰 풀 대기로 인한 스레드 낭비를 막는다.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler jdbcScheduler(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        return Schedulers.newBoundedElastic(poolSize, JDBC_QUEUED_TASK_CAP, "jdbc");
+    }
+}
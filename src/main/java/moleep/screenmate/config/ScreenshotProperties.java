@@ -0,0 +1,24 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.screenshot")
+@Getter
+@Setter
+public class ScreenshotProperties {
+
+    private int maxDimension = 512;
+    // 디코딩을 허용하는 최대 픽셀 수 (기본 약 40MP, 8K 화면 포함)
+    private long maxPixels = 40_000_000;
+    private float jpegQuality = 0.75f;
+    private boolean dedupeEnabled = true;
+    private int dedupeMaxDistance = 5;
+    private long dedupeCacheSize = 10_000;
+    private Duration dedupeTtl = Duration.ofMinutes(5);
+}
@@ -0,0 +1,19 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "auth.session")
+@Getter
+@Setter
+public class SessionProperties {
+
+    // 만료 세션 정리
+    private Duration cleanupInterval = Duration.ofMinutes(10);
+    private int cleanupBatchSize = 1000;
+}
@@ -0,0 +1,22 @@
+package moleep.screenmate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "llm.summary")
+@Getter
+@Setter
+public class SummaryProperties {
+
+    private int queueCapacity = 1000;
+    private int concurrency = 2;
+    private int maxRetries = 3;
+    private Duration initialBackoff = Duration.ofSeconds(2);
+    private Duration maxBackoff = Duration.ofSeconds(30);
+    private Duration timeout = Duration.ofSeconds(90);
+}
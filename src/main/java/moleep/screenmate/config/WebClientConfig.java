@@ -1,22 +1,89 @@
 package moleep.screenmate.config;
 
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.channel.ChannelOption;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.netty.http.Http2SslContextSpec;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
 @Configuration
 @RequiredArgsConstructor
 public class WebClientConfig {
 
     private final OpenAiProperties openAiProperties;
+    private final GoogleOAuthProperties googleOAuthProperties;
+
+    /**
+     * OpenAI 전용 커넥션 풀. 풀 지표(active/idle/pending, acquire 시간)는 reactor.netty.connection.provider.* 로 노출된다
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider openAiConnectionProvider() {
+        return ConnectionProvider.builder("openai")
+                .maxConnections(openAiProperties.getMaxConnections())
+                .pendingAcquireMaxCount(openAiProperties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(openAiProperties.getPendingAcquireTimeout())
+                .maxIdleTime(openAiProperties.getMaxIdleTime())
+                .maxLifeTime(openAiProperties.getMaxLifeTime())
+                .evictInBackground(openAiProperties.getEvictInterval())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * OpenAI 장애 시 빠르게 실패하기 위한 서킷 브레이커. 상태 지표는 resilience4j.circuitbreaker.* 로 노출된다
+     */
+    @Bean
+    public CircuitBreaker openAiCircuitBreaker(MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(openAiProperties.getCircuitWindowSize())
+                .minimumNumberOfCalls(openAiProperties.getCircuitMinimumCalls())
+                .failureRateThreshold(openAiProperties.getCircuitFailureRateThreshold())
+                .slowCallRateThreshold(openAiProperties.getCircuitSlowCallRateThreshold())
+                .slowCallDurationThreshold(openAiProperties.getCircuitSlowCallDuration())
+                .waitDurationInOpenState(openAiProperties.getCircuitOpenDuration())
+                // 4xx(429 제외)는 요청 자체의 문제이므로 장애로 세지 않는다
+                .recordException(e -> !(e instanceof WebClientResponseException response)
+                        || response.getStatusCode().is5xxServerError()
+                        || response.getStatusCode().value() == 429)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry.circuitBreaker("openai");
+    }
 
     @Bean
-    public WebClient openAiWebClient() {
+    public WebClient openAiWebClient(ConnectionProvider openAiConnectionProvider) {
+        // HttpClient 하나가 SSL 컨텍스트를 공유하므로 TLS 세션이 커넥션 간에 재사용된다
+        HttpClient httpClient = HttpClient.create(openAiConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) openAiProperties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .responseTimeout(openAiProperties.getResponseTimeout())
+                .keepAlive(true);
+
+        if (openAiProperties.isHttp2()) {
+            httpClient = httpClient
+                    .protocol(HttpProtocol.H2, HttpProtocol.HTTP11)
+                    .secure(spec -> spec.sslContext(Http2SslContextSpec.forClient()));
+        }
+
         return WebClient.builder()
                 .baseUrl(openAiProperties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + openAiProperties.getApiKey())
                 .codecs(configurer -> configurer
@@ -24,4 +91,30 @@ public class WebClientConfig {
                         .maxInMemorySize(16 * 1024 * 1024)) // 16MB buffer
                 .build();
     }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider googleOAuthConnectionProvider() {
+        return ConnectionProvider.builder("google-oauth")
+                .maxConnections(googleOAuthProperties.getMaxConnections())
+                .maxIdleTime(googleOAuthProperties.getMaxIdleTime())
+                .evictInBackground(googleOAuthProperties.getEvictInterval())
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Google 토큰 엔드포인트(auth code 교환) 전용 클라이언트. 로그인마다 커넥션과 TLS 핸드셰이크를 새로 만들지 않는다
+     */
+    @Bean
+    public WebClient googleOAuthWebClient(ConnectionProvider googleOAuthConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(googleOAuthConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) googleOAuthProperties.getConnectTimeout().toMillis())
+                .responseTimeout(googleOAuthProperties.getResponseTimeout())
+                .keepAlive(true);
+
+        return WebClient.builder()
+                .baseUrl(googleOAuthProperties.getTokenBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
 }
@@ -9,7 +9,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirements;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.auth.AuthResponse;
 import moleep.screenmate.dto.auth.GoogleLoginRequest;
@@ -67,7 +67,7 @@ public class AuthController {
     })
     @PostMapping("/logout")
     public ResponseEntity<Void> logout(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @RequestBody(required = false) LogoutRequest request) {
         String refreshToken = request != null ? request.getRefreshToken() : null;
         authService.logout(user, refreshToken);
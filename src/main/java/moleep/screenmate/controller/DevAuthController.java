@@ -9,6 +9,7 @@ import moleep.screenmate.domain.user.User;
 import moleep.screenmate.domain.user.UserRepository;
 import moleep.screenmate.dto.auth.AuthResponse;
 import moleep.screenmate.security.jwt.JwtTokenProvider;
+import moleep.screenmate.security.jwt.PrincipalResolver;
 import moleep.screenmate.service.auth.TokenService;
 import org.springframework.context.annotation.Profile;
 import org.springframework.http.ResponseEntity;
@@ -31,6 +32,7 @@ public class DevAuthController {
     private final JwtTokenProvider jwtTokenProvider;
     private final TokenService tokenService;
     private final JwtProperties jwtProperties;
+    private final PrincipalResolver principalResolver;
 
     @Operation(summary = "테스트 유저 생성 및 토큰 발급",
                description = "개발 환경에서 테스트용 유저를 생성하고 토큰을 발급합니다. 프로덕션에서는 비활성화됩니다.")
@@ -53,6 +55,7 @@ public class DevAuthController {
 
         user.updateLastLogin();
         userRepository.save(user);
+        principalResolver.invalidate(user.getId());
 
         String accessToken = jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail());
         String refreshToken = tokenService.createOrUpdateRefreshToken(user, deviceId, "Test Device");
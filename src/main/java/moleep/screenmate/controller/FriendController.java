@@ -9,7 +9,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.friend.CharacterSearchResponse;
 import moleep.screenmate.dto.friend.FriendMessageCreateRequest;
@@ -41,7 +41,7 @@ public class FriendController {
     })
     @GetMapping("/characters/search")
     public ResponseEntity<List<CharacterSearchResponse>> searchCharacters(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "검색어") @RequestParam String query,
             @Parameter(description = "최대 결과 수") @RequestParam(required = false) Integer limit) {
         List<CharacterSearchResponse> response = friendService.searchCharacters(user, query, limit);
@@ -59,7 +59,7 @@ public class FriendController {
     })
     @PostMapping("/characters/{id}/friend-requests")
     public ResponseEntity<FriendRequestResponse> sendFriendRequest(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "요청 보내는 캐릭터 ID") @PathVariable UUID id,
             @Valid @RequestBody FriendRequestCreateRequest request) {
         FriendRequestResponse response = friendService.sendFriendRequest(id, user, request);
@@ -75,7 +75,7 @@ public class FriendController {
     })
     @GetMapping("/characters/{id}/friend-requests")
     public ResponseEntity<List<FriendRequestResponse>> getFriendRequests(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "incoming|outgoing") @RequestParam(required = false) String direction,
             @Parameter(description = "PENDING|ACCEPTED|REJECTED|CANCELED") @RequestParam(required = false) String status) {
@@ -94,7 +94,7 @@ public class FriendController {
     })
     @PostMapping("/characters/{id}/friend-requests/{requestId}/accept")
     public ResponseEntity<FriendRequestResponse> acceptFriendRequest(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "수락하는 캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "친구 요청 ID") @PathVariable UUID requestId) {
         FriendRequestResponse response = friendService.acceptFriendRequest(id, user, requestId);
@@ -112,7 +112,7 @@ public class FriendController {
     })
     @PostMapping("/characters/{id}/friend-requests/{requestId}/reject")
     public ResponseEntity<FriendRequestResponse> rejectFriendRequest(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "거절하는 캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "친구 요청 ID") @PathVariable UUID requestId) {
         FriendRequestResponse response = friendService.rejectFriendRequest(id, user, requestId);
@@ -126,7 +126,7 @@ public class FriendController {
     })
     @GetMapping("/characters/{id}/friends")
     public ResponseEntity<List<FriendshipResponse>> getFriends(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id) {
         List<FriendshipResponse> response = friendService.getFriends(id, user);
         return ResponseEntity.ok(response);
@@ -143,7 +143,7 @@ public class FriendController {
     })
     @PostMapping("/characters/{id}/friends/{friendId}/messages")
     public ResponseEntity<FriendMessageResponse> sendFriendMessage(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "내 캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "친구 캐릭터 ID") @PathVariable UUID friendId,
             @Valid @RequestBody FriendMessageCreateRequest request) {
@@ -158,7 +158,7 @@ public class FriendController {
     })
     @GetMapping("/characters/{id}/friends/{friendId}/messages")
     public ResponseEntity<List<FriendMessageResponse>> getFriendMessages(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "내 캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "친구 캐릭터 ID") @PathVariable UUID friendId,
             @Parameter(description = "최대 조회 개수") @RequestParam(required = false) Integer limit) {
@@ -9,7 +9,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.lineage.LineageCreateRequest;
 import moleep.screenmate.dto.lineage.LineageEdgeResponse;
@@ -44,7 +44,7 @@ public class LineageController {
     })
     @PostMapping("/characters/{id}/lineage")
     public ResponseEntity<LineageEdgeResponse> createLineage(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "자식 캐릭터 ID") @PathVariable UUID id,
             @Valid @RequestBody LineageCreateRequest request) {
         LineageEdgeResponse response = lineageService.createLineage(id, user, request);
@@ -60,7 +60,7 @@ public class LineageController {
     })
     @GetMapping("/characters/{id}/lineage")
     public ResponseEntity<LineageGraphResponse> getLineage(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "루트 캐릭터 ID") @PathVariable UUID id,
             @Parameter(description = "탐색 깊이 (기본 3)") @RequestParam(required = false) Integer depth) {
         LineageGraphResponse response = lineageService.getLineageGraph(id, user, depth);
@@ -8,16 +8,19 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.llm.LlmGenerateRequest;
 import moleep.screenmate.dto.llm.LlmGenerateResponse;
 import moleep.screenmate.service.llm.LlmProxyService;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 import java.util.UUID;
 
@@ -27,6 +30,8 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class LlmController {
 
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     private final LlmProxyService llmProxyService;
 
     @Operation(
@@ -42,7 +47,7 @@ public class LlmController {
                     **Rate Limit:** 분당 60회
 
                     **허용된 액션 타입:**
-                    - APPEAR_EDGE, PLAY_ANIM, SPEAK, MOVE, EMOTE, SLEEP
+                    - APPEAR_EDGE, PLAY_ANIM, SPEAK, MOVE, EMOTE, SLEEP, PAYDAY
                     """
     )
     @ApiResponses({
@@ -54,22 +59,24 @@ public class LlmController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping(value = "/generate", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ResponseEntity<LlmGenerateResponse> generate(
-            @AuthenticationPrincipal User user,
+    public Mono<ResponseEntity<LlmGenerateResponse>> generate(
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "캐릭터 ID", required = true)
             @RequestParam("characterId") UUID characterId,
             @Parameter(description = "사용자 메시지")
             @RequestParam(value = "userMessage", required = false) String userMessage,
             @Parameter(description = "스크린샷 이미지 (선택, 최대 5MB)")
-            @RequestPart(value = "screenshot", required = false) MultipartFile screenshot) {
+            @RequestPart(value = "screenshot", required = false) MultipartFile screenshot,
+            @Parameter(description = "재시도 식별 키 (선택). 같은 키로 실행 중인 요청이 있으면 그 결과를 함께 받습니다")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
 
         LlmGenerateRequest request = LlmGenerateRequest.builder()
                 .characterId(characterId)
                 .userMessage(userMessage)
                 .build();
 
-        LlmGenerateResponse response = llmProxyService.generate(user, request, screenshot);
-        return ResponseEntity.ok(response);
+        return llmProxyService.generate(user, request, screenshot, idempotencyKey)
+                .map(ResponseEntity::ok);
     }
 
     @Operation(
@@ -87,11 +94,64 @@ public class LlmController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @PostMapping(value = "/generate", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<LlmGenerateResponse> generateJson(
-            @AuthenticationPrincipal User user,
+    public Mono<ResponseEntity<LlmGenerateResponse>> generateJson(
+            @AuthenticationPrincipal UserPrincipal user,
+            @RequestBody LlmGenerateRequest request,
+            @Parameter(description = "재시도 식별 키 (선택). 같은 키로 실행 중인 요청이 있으면 그 결과를 함께 받습니다")
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+
+        return llmProxyService.generate(user, request, null, idempotencyKey)
+                .map(ResponseEntity::ok);
+    }
+
+    @Operation(
+            summary = "LLM 응답 스트리밍 (Multipart, SSE)",
+            description = """
+                    스크린샷과 함께 LLM 응답을 Server-Sent Events로 스트리밍합니다.
+
+                    **이벤트:**
+                    - `delta`: 생성 중인 메시지 조각 (`{"text": "..."}`)
+                    - `done`: 최종 message, actions, emotion, intimacyDelta
+                    - `error`: 에러 코드와 메시지
+
+                    친밀도 반영과 대화 저장은 `done` 이벤트 이후에 처리됩니다.
+
+                    **Rate Limit:** 분당 60회
+                    """
+    )
+    @PostMapping(value = "/generate/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> generateStream(
+            @AuthenticationPrincipal UserPrincipal user,
+            @Parameter(description = "캐릭터 ID", required = true)
+            @RequestParam("characterId") UUID characterId,
+            @Parameter(description = "사용자 메시지")
+            @RequestParam(value = "userMessage", required = false) String userMessage,
+            @Parameter(description = "스크린샷 이미지 (선택, 최대 5MB)")
+            @RequestPart(value = "screenshot", required = false) MultipartFile screenshot) {
+
+        LlmGenerateRequest request = LlmGenerateRequest.builder()
+                .characterId(characterId)
+                .userMessage(userMessage)
+                .build();
+
+        return llmProxyService.generateStream(user, request, screenshot);
+    }
+
+    @Operation(
+            summary = "LLM 응답 스트리밍 (JSON, SSE)",
+            description = """
+                    스크린샷 없이 텍스트만으로 LLM 응답을 Server-Sent Events로 스트리밍합니다.
+
+                    **Rate Limit:** 분당 60회
+                    """
+    )
+    @PostMapping(value = "/generate/stream", consumes = MediaType.APPLICATION_JSON_VALUE,
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> generateStreamJson(
+            @AuthenticationPrincipal UserPrincipal user,
             @RequestBody LlmGenerateRequest request) {
 
-        LlmGenerateResponse response = llmProxyService.generate(user, request, null);
-        return ResponseEntity.ok(response);
+        return llmProxyService.generateStream(user, request, null);
     }
 }
@@ -9,7 +9,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.sync.*;
 import moleep.screenmate.service.sync.*;
@@ -39,7 +39,7 @@ public class SyncController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
     @GetMapping("/sync/bootstrap")
-    public ResponseEntity<BootstrapResponse> getBootstrapData(@AuthenticationPrincipal User user) {
+    public ResponseEntity<BootstrapResponse> getBootstrapData(@AuthenticationPrincipal UserPrincipal user) {
         BootstrapResponse response = bootstrapService.getBootstrapData(user);
         return ResponseEntity.ok(response);
     }
@@ -54,7 +54,7 @@ public class SyncController {
     })
     @PostMapping("/characters")
     public ResponseEntity<CharacterResponse> createCharacter(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Valid @RequestBody CharacterCreateRequest request) {
         CharacterResponse response = characterService.createCharacter(user, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -64,7 +64,7 @@ public class SyncController {
     @Operation(summary = "캐릭터 목록 조회", description = "사용자의 모든 캐릭터를 조회합니다.")
     @ApiResponse(responseCode = "200", description = "조회 성공")
     @GetMapping("/characters")
-    public ResponseEntity<List<CharacterResponse>> getCharacters(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<CharacterResponse>> getCharacters(@AuthenticationPrincipal UserPrincipal user) {
         List<CharacterResponse> response = characterService.getCharacters(user);
         return ResponseEntity.ok(response);
     }
@@ -80,7 +80,7 @@ public class SyncController {
     @GetMapping("/characters/{id}")
     public ResponseEntity<CharacterResponse> getCharacter(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         CharacterResponse response = characterService.getCharacter(id, user);
         return ResponseEntity.ok(response);
     }
@@ -98,7 +98,7 @@ public class SyncController {
     @PatchMapping("/characters/{id}")
     public ResponseEntity<CharacterResponse> updateCharacter(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @RequestBody CharacterPatchRequest request) {
         CharacterResponse response = characterService.updateCharacter(id, user, request);
         return ResponseEntity.ok(response);
@@ -114,7 +114,7 @@ public class SyncController {
     @DeleteMapping("/characters/{id}")
     public ResponseEntity<Void> deleteCharacter(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         characterService.deleteCharacter(id, user);
         return ResponseEntity.noContent().build();
     }
@@ -132,7 +132,7 @@ public class SyncController {
     @PatchMapping("/characters/{id}/qa")
     public ResponseEntity<QaMemoryResponse> patchQaMemory(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Valid @RequestBody QaPatchRequest request) {
         QaMemoryResponse response = qaMemoryService.patchQaMemory(id, user, request);
         return ResponseEntity.ok(response);
@@ -149,7 +149,7 @@ public class SyncController {
     @PostMapping("/characters/{id}/events")
     public ResponseEntity<EventResponse> createEvent(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Valid @RequestBody EventCreateRequest request) {
         EventResponse response = eventService.createEvent(id, user, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -161,7 +161,7 @@ public class SyncController {
     @GetMapping("/characters/{id}/events")
     public ResponseEntity<List<EventResponse>> getEvents(
             @Parameter(description = "캐릭터 ID") @PathVariable UUID id,
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "최대 조회 개수 (최대 100)") @RequestParam(defaultValue = "20") int limit) {
         List<EventResponse> response = eventService.getEvents(id, user, Math.min(limit, 100));
         return ResponseEntity.ok(response);
@@ -9,7 +9,7 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.ErrorResponse;
 import moleep.screenmate.dto.progress.AchievementUpsertRequest;
 import moleep.screenmate.dto.progress.PlaceDiscoverRequest;
@@ -35,7 +35,7 @@ public class UserProgressController {
                     content = @Content(schema = @Schema(implementation = UserAchievementResponse.class)))
     })
     @GetMapping("/users/me/achievements")
-    public ResponseEntity<List<UserAchievementResponse>> getMyAchievements(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<UserAchievementResponse>> getMyAchievements(@AuthenticationPrincipal UserPrincipal user) {
         return ResponseEntity.ok(userProgressService.getUserAchievements(user));
     }
 
@@ -45,7 +45,7 @@ public class UserProgressController {
     })
     @GetMapping("/users/me/achievements/definitions")
     public ResponseEntity<List<moleep.screenmate.dto.progress.AchievementDefinitionResponse>> getAchievementDefinitions(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         return ResponseEntity.ok(userProgressService.getAchievementDefinitions());
     }
 
@@ -58,7 +58,7 @@ public class UserProgressController {
     })
     @PutMapping("/users/me/achievements/{achievementId}")
     public ResponseEntity<UserAchievementResponse> upsertAchievement(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "업적 ID") @PathVariable String achievementId,
             @Valid @RequestBody AchievementUpsertRequest request) {
         return ResponseEntity.ok(userProgressService.upsertAchievement(user, achievementId, request));
@@ -70,7 +70,7 @@ public class UserProgressController {
                     content = @Content(schema = @Schema(implementation = UserDiscoveredPlaceResponse.class)))
     })
     @GetMapping("/users/me/places")
-    public ResponseEntity<List<UserDiscoveredPlaceResponse>> getMyPlaces(@AuthenticationPrincipal User user) {
+    public ResponseEntity<List<UserDiscoveredPlaceResponse>> getMyPlaces(@AuthenticationPrincipal UserPrincipal user) {
         return ResponseEntity.ok(userProgressService.getDiscoveredPlaces(user));
     }
 
@@ -80,7 +80,7 @@ public class UserProgressController {
     })
     @GetMapping("/users/me/places/definitions")
     public ResponseEntity<List<moleep.screenmate.dto.progress.PlaceDefinitionResponse>> getPlaceDefinitions(
-            @AuthenticationPrincipal User user) {
+            @AuthenticationPrincipal UserPrincipal user) {
         return ResponseEntity.ok(userProgressService.getPlaceDefinitions());
     }
 
@@ -93,7 +93,7 @@ public class UserProgressController {
     })
     @PutMapping("/users/me/places/{placeId}")
     public ResponseEntity<UserDiscoveredPlaceResponse> discoverPlace(
-            @AuthenticationPrincipal User user,
+            @AuthenticationPrincipal UserPrincipal user,
             @Parameter(description = "장소 ID") @PathVariable String placeId,
             @Valid @RequestBody PlaceDiscoverRequest request) {
         return ResponseEntity.ok(userProgressService.discoverPlace(user, placeId, request));
@@ -3,14 +3,18 @@ package moleep.screenmate.domain.character;
 import jakarta.persistence.*;
 import lombok.*;
 import moleep.screenmate.domain.user.User;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
+// 친밀도/대화 턴처럼 SQL로 직접 갱신하는 컬럼을 엔티티 저장이 덮어쓰지 않도록 변경된 컬럼만 UPDATE
 @Entity
+@DynamicUpdate
 @Table(name = "characters")
 @Getter
 @Setter
@@ -58,6 +62,12 @@ public class Character {
     @Builder.Default
     private Integer intimacyDailyCount = 0;
 
+    // 대화 저장과 같은 트랜잭션에서 SQL로만 증가시킨다 (엔티티 저장으로 덮어쓰지 않음)
+    @Column(name = "conversation_turns", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    @Builder.Default
+    private Long conversationTurns = 0L;
+
     @Column(nullable = false)
     @Builder.Default
     private Integer happiness = 50;
@@ -5,7 +5,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -37,4 +39,42 @@ public interface CharacterRepository extends JpaRepository<Character, UUID> {
             "OR LOWER(u.displayName) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR UPPER(c.inviteCode) = UPPER(:query))")
     List<Character> searchByQuery(@Param("query") String query, Pageable pageable);
+
+    /*
+     * UPDATE/INSERT ... RETURNING 네이티브 쿼리는 @Modifying(executeUpdate, 영향 행 수만 반환)을 붙이지 않고
+     * 조회처럼 실행해 RETURNING 값을 받는다. PostgreSQL은 결과 집합을 돌려주는 DML도 executeQuery로 처리한다.
+     * 쓰기 문장이므로 리포지토리 기본 읽기 전용 트랜잭션을 피하도록 @Transactional을 붙인다.
+     * H2 테스트는 Flyway 없이 돌아 이 문장을 실행하지 않으므로 PostgreSQL 컨테이너 테스트로 검증한다.
+     */
+    @Transactional
+    @Query(value = "UPDATE characters SET conversation_turns = conversation_turns + :turns " +
+            "WHERE id = :characterId RETURNING conversation_turns", nativeQuery = true)
+    long incrementConversationTurns(@Param("characterId") UUID characterId, @Param("turns") int turns);
+
+    /**
+     * 날짜가 바뀌었으면 일일 횟수를 0으로 되돌린 뒤, 일일 상한 안에서만 delta를 0~100 범위로 반영한다.
+     * 행을 먼저 잠그고 한 문장으로 처리하므로 동시 요청이 서로의 갱신을 덮어쓰지 않는다.
+     * version은 올리지 않아 같은 캐릭터의 PATCH와 낙관적 락 충돌을 일으키지 않는다
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE characters c SET
+                intimacy_score = CASE WHEN s.daily_count < :dailyCap
+                    THEN LEAST(100, GREATEST(0, c.intimacy_score + :delta)) ELSE c.intimacy_score END,
+                intimacy_daily_count = s.daily_count + CASE WHEN s.daily_count < :dailyCap THEN 1 ELSE 0 END,
+                intimacy_daily_date = :today,
+                updated_at = now()
+            FROM (
+                SELECT id, CASE WHEN intimacy_daily_date = :today THEN intimacy_daily_count ELSE 0 END AS daily_count
+                FROM characters
+                WHERE id = :characterId
+                FOR UPDATE
+            ) s
+            WHERE c.id = s.id
+            RETURNING c.intimacy_score AS "intimacyScore",
+                      c.intimacy_daily_count AS "intimacyDailyCount",
+                      s.daily_count < :dailyCap AS "applied"
+            """, nativeQuery = true)
+    IntimacyUpdate applyIntimacyDelta(@Param("characterId") UUID characterId, @Param("delta") double delta,
+                                      @Param("today") LocalDate today, @Param("dailyCap") int dailyCap);
 }
@@ -0,0 +1,13 @@
+package moleep.screenmate.domain.character;
+
+/**
+ * 친밀도 UPDATE ... RETURNING 결과
+ */
+public interface IntimacyUpdate {
+
+    Double getIntimacyScore();
+
+    Integer getIntimacyDailyCount();
+
+    Boolean getApplied();
+}
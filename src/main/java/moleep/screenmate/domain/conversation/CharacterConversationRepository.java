@@ -1,7 +1,13 @@
 package moleep.screenmate.domain.conversation;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -9,6 +15,23 @@ public interface CharacterConversationRepository extends JpaRepository<Character
 
     List<CharacterConversation> findTop20ByCharacterIdOrderByCreatedAtDesc(UUID characterId);
 
-    long countByCharacterId(UUID characterId);
-}
+    @Query("SELECT c.createdAt FROM CharacterConversation c WHERE c.character.id = :characterId ORDER BY c.createdAt DESC")
+    List<Instant> findCreatedAtByCharacterId(@Param("characterId") UUID characterId, Pageable pageable);
 
+    /**
+     * cutoff 이전 대화를 최대 batchSize개 삭제. 배치마다 별도 트랜잭션으로 실행된다.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM character_conversations
+            WHERE id IN (
+                SELECT id FROM character_conversations
+                WHERE character_id = :characterId AND created_at < :cutoff
+                ORDER BY created_at
+                LIMIT :batchSize
+            )
+            """, nativeQuery = true)
+    int deleteBatchOlderThan(@Param("characterId") UUID characterId, @Param("cutoff") Instant cutoff,
+                             @Param("batchSize") int batchSize);
+}
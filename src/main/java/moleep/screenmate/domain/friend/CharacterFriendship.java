@@ -30,7 +30,8 @@ public class CharacterFriendship {
     @JoinColumn(name = "character_b_id", nullable = false)
     private Character characterB;
 
-    @Column(nullable = false)
+    // CharacterFriendshipRepository.incrementIntimacy(SQL)로만 갱신하므로 엔티티 저장이 덮어쓰지 않게 한다
+    @Column(nullable = false, updatable = false)
     @Builder.Default
     private Integer intimacy = 0;
 
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,4 +19,10 @@ public interface CharacterFriendshipRepository extends JpaRepository<CharacterFr
     @Query("SELECT f FROM CharacterFriendship f WHERE f.characterA.id = :characterAId AND f.characterB.id = :characterBId")
     Optional<CharacterFriendship> findByCharacterPair(@Param("characterAId") UUID characterAId,
                                                       @Param("characterBId") UUID characterBId);
+
+    // RETURNING이 있는 네이티브 UPDATE라 @Modifying 없이 조회로 실행한다 (CharacterRepository.incrementConversationTurns 참고)
+    @Transactional
+    @Query(value = "UPDATE character_friendships SET intimacy = LEAST(intimacy + 1, :maxIntimacy), updated_at = now() " +
+            "WHERE id = :friendshipId RETURNING intimacy", nativeQuery = true)
+    int incrementIntimacy(@Param("friendshipId") UUID friendshipId, @Param("maxIntimacy") int maxIntimacy);
 }
@@ -1,4 +1,4 @@
-package moleep.screenmate.domain.token;
+package moleep.screenmate.domain.session;
 
 import jakarta.persistence.*;
 import lombok.*;
@@ -9,32 +9,41 @@ import org.hibernate.annotations.UpdateTimestamp;
 import java.time.Instant;
 import java.util.UUID;
 
+/**
+ * 기기별 리프레시 토큰 세션. 토큰 원문 대신 해시와 jti(token_id)만 저장한다
+ */
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "user_sessions", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_user_sessions_token_hash", columnNames = "token_hash"),
+        @UniqueConstraint(name = "uk_user_sessions_user_device", columnNames = {"user_id", "device_id"})
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @AllArgsConstructor
 @Builder
-public class RefreshToken {
+public class UserSession {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @OneToOne(fetch = FetchType.LAZY)
-    @JoinColumn(name = "user_id", nullable = false, unique = true)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @Column(name = "token_hash", nullable = false)
-    private String tokenHash;
-
     @Column(name = "device_id", nullable = false)
     private String deviceId;
 
     @Column(name = "device_name")
     private String deviceName;
 
+    @Column(name = "token_hash", nullable = false)
+    private String tokenHash;
+
+    @Column(name = "token_id", nullable = false, length = 64)
+    private String tokenId;
+
     @Column(name = "expires_at", nullable = false)
     private Instant expiresAt;
 
@@ -49,24 +58,4 @@ public class RefreshToken {
     @UpdateTimestamp
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
-
-    public boolean isExpired() {
-        return Instant.now().isAfter(expiresAt);
-    }
-
-    public boolean isValid() {
-        return !revoked && !isExpired();
-    }
-
-    public void revoke() {
-        this.revoked = true;
-    }
-
-    public void updateToken(String tokenHash, String deviceId, String deviceName, Instant expiresAt) {
-        this.tokenHash = tokenHash;
-        this.deviceId = deviceId;
-        this.deviceName = deviceName;
-        this.expiresAt = expiresAt;
-        this.revoked = false;
-    }
 }
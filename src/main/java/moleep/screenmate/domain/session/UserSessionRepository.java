@@ -0,0 +1,90 @@
+package moleep.screenmate.domain.session;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface UserSessionRepository extends JpaRepository<UserSession, UUID> {
+
+    /**
+     * 기기별 세션을 한 문장으로 발급/교체한다. 같은 기기의 재로그인은 기존 세션을 덮어쓰고 다른 기기 세션은 유지된다.
+     * 이 파일의 RETURNING 네이티브 DML은 @Modifying 없이 조회로 실행한다 (CharacterRepository.incrementConversationTurns 참고)
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO user_sessions (user_id, device_id, device_name, token_hash, token_id, expires_at)
+            VALUES (:userId, :deviceId, :deviceName, :tokenHash, :tokenId, :expiresAt)
+            ON CONFLICT (user_id, device_id) DO UPDATE
+               SET device_name = EXCLUDED.device_name,
+                   token_hash = EXCLUDED.token_hash,
+                   token_id = EXCLUDED.token_id,
+                   expires_at = EXCLUDED.expires_at,
+                   revoked = FALSE,
+                   updated_at = now()
+            RETURNING id
+            """, nativeQuery = true)
+    UUID upsertForDevice(@Param("userId") UUID userId, @Param("deviceId") String deviceId,
+                         @Param("deviceName") String deviceName, @Param("tokenHash") String tokenHash,
+                         @Param("tokenId") String tokenId, @Param("expiresAt") Instant expiresAt);
+
+    /**
+     * 제시된 토큰이 해당 기기의 유효한 현재 토큰일 때만 새 토큰으로 교체한다.
+     * 이미 교체됐거나 폐기/만료된 토큰이면 행이 없으므로 동시 갱신 중 하나만 성공한다
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE user_sessions
+               SET token_hash = :newTokenHash,
+                   token_id = :newTokenId,
+                   expires_at = :expiresAt,
+                   updated_at = now()
+            WHERE token_hash = :tokenHash
+              AND device_id = :deviceId
+              AND revoked = FALSE
+              AND expires_at > now()
+            RETURNING user_id
+            """, nativeQuery = true)
+    Optional<UUID> rotate(@Param("tokenHash") String tokenHash, @Param("deviceId") String deviceId,
+                          @Param("newTokenHash") String newTokenHash, @Param("newTokenId") String newTokenId,
+                          @Param("expiresAt") Instant expiresAt);
+
+    @Transactional
+    @Query(value = """
+            UPDATE user_sessions SET revoked = TRUE, updated_at = now()
+            WHERE token_hash = :tokenHash AND revoked = FALSE
+            RETURNING token_id
+            """, nativeQuery = true)
+    Optional<String> revokeByTokenHash(@Param("tokenHash") String tokenHash);
+
+    @Transactional
+    @Query(value = """
+            UPDATE user_sessions SET revoked = TRUE, updated_at = now()
+            WHERE user_id = :userId AND revoked = FALSE
+            RETURNING token_id
+            """, nativeQuery = true)
+    List<String> revokeAllByUserId(@Param("userId") UUID userId);
+
+    /**
+     * 만료된 세션을 최대 batchSize개 삭제. 배치마다 별도 트랜잭션으로 실행된다.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM user_sessions
+            WHERE id IN (
+                SELECT id FROM user_sessions
+                WHERE expires_at < :now
+                LIMIT :batchSize
+            )
+            """, nativeQuery = true)
+    int deleteExpiredBatch(@Param("now") Instant now, @Param("batchSize") int batchSize);
+}
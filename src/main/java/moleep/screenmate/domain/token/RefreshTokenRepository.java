@@ -1,32 +0,0 @@
-package moleep.screenmate.domain.token;
-
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
-
-import java.time.Instant;
-import java.util.Optional;
-import java.util.UUID;
-
-@Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
-
-    Optional<RefreshToken> findByUserId(UUID userId);
-
-    Optional<RefreshToken> findByTokenHash(String tokenHash);
-
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.user.id = :userId AND rt.revoked = false AND rt.expiresAt > :now")
-    Optional<RefreshToken> findValidTokenByUserId(@Param("userId") UUID userId, @Param("now") Instant now);
-
-    @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user.id = :userId")
-    void revokeAllByUserId(@Param("userId") UUID userId);
-
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now OR rt.revoked = true")
-    int deleteExpiredOrRevokedTokens(@Param("now") Instant now);
-
-    boolean existsByUserIdAndDeviceIdAndRevokedFalse(UUID userId, String deviceId);
-}
@@ -0,0 +1,14 @@
+package moleep.screenmate.domain.user;
+
+import java.util.UUID;
+
+/**
+ * 인증 주체. 요청 간에 캐시되므로 엔티티 대신 바뀌지 않는 값만 담는다.
+ * 프로필이나 연관관계가 필요하면 id로 User를 조회하거나 참조(getReferenceById)를 얻는다
+ */
+public record UserPrincipal(UUID id, String email) {
+
+    public static UserPrincipal from(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail());
+    }
+}
@@ -1,7 +1,10 @@
 package moleep.screenmate.domain.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +17,25 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     Optional<User> findByEmail(String email);
 
     boolean existsByGoogleId(String googleId);
+
+    /**
+     * Google 로그인 한 번에 사용자 생성 또는 이메일/프로필/마지막 로그인 갱신.
+     * 같은 계정의 동시 로그인도 google_id 유니크 충돌 없이 한 행으로 합쳐진다.
+     * RETURNING이 있는 네이티브 INSERT라 @Modifying 없이 조회로 실행한다 (CharacterRepository.incrementConversationTurns 참고)
+     */
+    @Transactional
+    @Query(value = """
+            INSERT INTO users (google_id, email, display_name, profile_image_url, last_login_at)
+            VALUES (:googleId, :email, :displayName, :profileImageUrl, now())
+            ON CONFLICT (google_id) DO UPDATE
+               SET email = EXCLUDED.email,
+                   display_name = EXCLUDED.display_name,
+                   profile_image_url = EXCLUDED.profile_image_url,
+                   last_login_at = EXCLUDED.last_login_at,
+                   updated_at = now()
+            RETURNING *
+            """, nativeQuery = true)
+    User upsertGoogleLogin(@Param("googleId") String googleId, @Param("email") String email,
+                           @Param("displayName") String displayName,
+                           @Param("profileImageUrl") String profileImageUrl);
 }
@@ -1,5 +1,6 @@
 package moleep.screenmate.dto.llm;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Builder;
@@ -38,12 +39,16 @@ public class LlmGenerateResponse {
     @Schema(description = "오늘 적용된 친밀도 변화 횟수", example = "7")
     private Integer intimacyDailyCount;
 
+    // 화면 중복 제거용 내부 필드 (응답에는 포함하지 않음)
+    @JsonIgnore
+    private String screenDescription;
+
     @Getter
     @Builder
     @Schema(description = "캐릭터 액션")
     public static class Action {
         @Schema(description = "액션 타입", example = "SPEAK",
-                allowableValues = {"APPEAR_EDGE", "PLAY_ANIM", "SPEAK", "MOVE", "EMOTE", "SLEEP"})
+                allowableValues = {"APPEAR_EDGE", "PLAY_ANIM", "SPEAK", "MOVE", "EMOTE", "SLEEP", "PAYDAY"})
         private String type;
 
         @Schema(description = "액션 파라미터", example = "{\"text\": \"안녕!\", \"duration\": 3}")
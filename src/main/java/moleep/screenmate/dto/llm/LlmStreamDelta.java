@@ -0,0 +1,14 @@
+package moleep.screenmate.dto.llm;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "LLM 스트리밍 메시지 조각")
+public class LlmStreamDelta {
+
+    @Schema(description = "새로 생성된 메시지 텍스트", example = "안녕! 오늘")
+    private String text;
+}
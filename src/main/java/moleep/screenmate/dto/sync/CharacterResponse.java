@@ -37,6 +37,9 @@ public class CharacterResponse {
     @Schema(description = "유저와의 친밀도 (0-100)", example = "12.4")
     private Double intimacyScore;
 
+    @Schema(description = "누적 대화 턴 수", example = "128")
+    private Long conversationTurns;
+
     @Schema(description = "행복도 (0-100)", example = "75")
     private Integer happiness;
 
@@ -83,6 +86,7 @@ public class CharacterResponse {
                 .personality(character.getPersonality())
                 .stageIndex(character.getStageIndex())
                 .intimacyScore(character.getIntimacyScore())
+                .conversationTurns(character.getConversationTurns())
                 .happiness(character.getHappiness())
                 .hunger(character.getHunger())
                 .health(character.getHealth())
@@ -0,0 +1,14 @@
+package moleep.screenmate.exception;
+
+import org.springframework.http.HttpStatus;
+
+public class ServiceUnavailableException extends BaseException {
+
+    public ServiceUnavailableException(String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, "SERVICE_UNAVAILABLE", message);
+    }
+
+    public ServiceUnavailableException(String errorCode, String message) {
+        super(HttpStatus.SERVICE_UNAVAILABLE, errorCode, message);
+    }
+}
@@ -0,0 +1,58 @@
+package moleep.screenmate.security.jwt;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.exception.InvalidTokenException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+
+/**
+ * Authorization 헤더의 Bearer 토큰을 검증한다.
+ * 결과(실패 포함)는 요청 속성에 남겨 rate limit 필터와 인증 필터가 토큰을 한 번만 파싱하게 한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BearerTokenResolver {
+
+    private static final String AUTHORIZATION_HEADER = "Authorization";
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String VERIFIED_TOKEN_ATTRIBUTE = BearerTokenResolver.class.getName() + ".verifiedToken";
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    @SuppressWarnings("unchecked")
+    public Optional<VerifiedToken> resolve(HttpServletRequest request) {
+        Object cached = request.getAttribute(VERIFIED_TOKEN_ATTRIBUTE);
+        if (cached != null) {
+            return (Optional<VerifiedToken>) cached;
+        }
+
+        Optional<VerifiedToken> verified = verify(extractToken(request));
+        request.setAttribute(VERIFIED_TOKEN_ATTRIBUTE, verified);
+        return verified;
+    }
+
+    private Optional<VerifiedToken> verify(String token) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(jwtTokenProvider.verify(token));
+        } catch (InvalidTokenException e) {
+            log.debug("Invalid token: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private String extractToken(HttpServletRequest request) {
+        String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
+            return bearerToken.substring(BEARER_PREFIX.length());
+        }
+        return null;
+    }
+}
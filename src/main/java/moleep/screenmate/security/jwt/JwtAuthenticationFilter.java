@@ -1,75 +1,69 @@
 package moleep.screenmate.security.jwt;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import moleep.screenmate.domain.user.User;
-import moleep.screenmate.domain.user.UserRepository;
-import moleep.screenmate.exception.InvalidTokenException;
+import moleep.screenmate.domain.user.UserPrincipal;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private static final String AUTHORIZATION_HEADER = "Authorization";
-    private static final String BEARER_PREFIX = "Bearer ";
+    private final BearerTokenResolver bearerTokenResolver;
+    private final PrincipalResolver principalResolver;
+    private final MeterRegistry meterRegistry;
 
-    private final JwtTokenProvider jwtTokenProvider;
-    private final UserRepository userRepository;
+    private Timer authenticationTimer;
+
+    @PostConstruct
+    void initMetrics() {
+        authenticationTimer = Timer.builder("auth.filter.latency")
+                .description("Time spent resolving the authenticated principal")
+                .register(meterRegistry);
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
 
         try {
-            String token = extractToken(request);
-
-            if (StringUtils.hasText(token)) {
-                if (!jwtTokenProvider.isAccessToken(token)) {
-                    log.debug("Token is not an access token");
-                    filterChain.doFilter(request, response);
-                    return;
-                }
+            long start = System.nanoTime();
+            VerifiedToken token = bearerTokenResolver.resolve(request).orElse(null);
 
-                UUID userId = jwtTokenProvider.getUserIdFromToken(token);
-                User user = userRepository.findById(userId).orElse(null);
+            if (token != null && !token.isAccessToken()) {
+                log.debug("Token is not an access token");
+            } else if (token != null) {
+                UserPrincipal user = principalResolver.resolve(token);
+                authenticationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
                 if (user != null) {
                     UsernamePasswordAuthenticationToken authentication =
                             new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
-                    log.debug("Authenticated user: {}", user.getEmail());
+                    log.debug("Authenticated user: {}", user.email());
                 }
             }
-        } catch (InvalidTokenException e) {
-            log.debug("Invalid token: {}", e.getMessage());
         } catch (Exception e) {
             log.error("Authentication error", e);
         }
 
         filterChain.doFilter(request, response);
     }
-
-    private String extractToken(HttpServletRequest request) {
-        String bearerToken = request.getHeader(AUTHORIZATION_HEADER);
-        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith(BEARER_PREFIX)) {
-            return bearerToken.substring(BEARER_PREFIX.length());
-        }
-        return null;
-    }
 }
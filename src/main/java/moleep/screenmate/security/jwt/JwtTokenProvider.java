@@ -1,7 +1,13 @@
 package moleep.screenmate.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.config.JwtProperties;
@@ -10,6 +16,7 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Date;
 import java.util.UUID;
@@ -19,11 +26,33 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class JwtTokenProvider {
 
-    private final JwtProperties jwtProperties;
+    public static final String ACCESS_TOKEN_TYPE = "access";
+    public static final String REFRESH_TOKEN_TYPE = "refresh";
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private final JwtProperties jwtProperties;
+    private final MeterRegistry meterRegistry;
+
+    // 서명 키와 파서는 불변이고 스레드 안전하므로 시작 시 한 번만 만든다
+    private SecretKey signingKey;
+    private JwtParser parser;
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+
+        long cacheSize = jwtProperties.getVerifiedTokenCacheSize();
+        if (cacheSize > 0) {
+            verifiedTokens = Caffeine.newBuilder()
+                    .maximumSize(cacheSize)
+                    .expireAfter(new UntilTokenExpiry())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "auth.verified-token");
+        }
     }
 
     public String generateAccessToken(UUID userId, String email) {
@@ -33,35 +62,57 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .subject(userId.toString())
                 .claim("email", email)
-                .claim("type", "access")
+                .claim("type", ACCESS_TOKEN_TYPE)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public String generateRefreshToken(UUID userId, String deviceId) {
+    /**
+     * tokenId는 jti로 들어가며 세션 행에 함께 저장되어 폐기 여부 확인에 쓰인다
+     */
+    public String generateRefreshToken(UUID userId, String deviceId, String tokenId) {
         Instant now = Instant.now();
         Instant expiry = now.plusMillis(jwtProperties.getRefreshTokenExpiryMillis());
 
         return Jwts.builder()
                 .subject(userId.toString())
                 .claim("deviceId", deviceId)
-                .claim("type", "refresh")
-                .id(UUID.randomUUID().toString())
+                .claim("type", REFRESH_TOKEN_TYPE)
+                .id(tokenId)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiry))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    public Claims validateToken(String token) {
+    /**
+     * 서명과 만료를 검증한다. 검증 캐시가 켜져 있으면 최근에 검증한 토큰은 만료 시각까지 다시 검증하지 않는다
+     */
+    public VerifiedToken verify(String token) {
+        if (verifiedTokens == null) {
+            return parse(token);
+        }
+        VerifiedToken verified = verifiedTokens.get(token, this::parse);
+        // 캐시 만료 처리 전 짧은 틈에 조회된 경우
+        if (!verified.expiresAt().isAfter(Instant.now())) {
+            verifiedTokens.invalidate(token);
+            throw new InvalidTokenException("Token has expired");
+        }
+        return verified;
+    }
+
+    private VerifiedToken parse(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            return new VerifiedToken(
+                    UUID.fromString(claims.getSubject()),
+                    claims.get("type", String.class),
+                    claims.get("email", String.class),
+                    claims.get("deviceId", String.class),
+                    claims.getId(),
+                    claims.getExpiration().toInstant());
         } catch (ExpiredJwtException e) {
             throw new InvalidTokenException("Token has expired");
         } catch (MalformedJwtException e) {
@@ -73,30 +124,25 @@ public class JwtTokenProvider {
         }
     }
 
-    public UUID getUserIdFromToken(String token) {
-        Claims claims = validateToken(token);
-        return UUID.fromString(claims.getSubject());
-    }
-
-    public String getDeviceIdFromToken(String token) {
-        Claims claims = validateToken(token);
-        return claims.get("deviceId", String.class);
+    public Instant getRefreshTokenExpiry() {
+        return Instant.now().plusMillis(jwtProperties.getRefreshTokenExpiryMillis());
     }
 
-    public String getTokenType(String token) {
-        Claims claims = validateToken(token);
-        return claims.get("type", String.class);
-    }
+    private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
 
-    public boolean isAccessToken(String token) {
-        return "access".equals(getTokenType(token));
-    }
+        @Override
+        public long expireAfterCreate(String token, VerifiedToken verified, long currentTime) {
+            return Math.max(Duration.between(Instant.now(), verified.expiresAt()).toNanos(), 0);
+        }
 
-    public boolean isRefreshToken(String token) {
-        return "refresh".equals(getTokenType(token));
-    }
+        @Override
+        public long expireAfterUpdate(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
 
-    public Instant getRefreshTokenExpiry() {
-        return Instant.now().plusMillis(jwtProperties.getRefreshTokenExpiryMillis());
+        @Override
+        public long expireAfterRead(String token, VerifiedToken verified, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
 }
@@ -0,0 +1,71 @@
+package moleep.screenmate.security.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import moleep.screenmate.config.JwtProperties;
+import moleep.screenmate.domain.user.UserPrincipal;
+import moleep.screenmate.domain.user.UserRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+/**
+ * 검증된 액세스 토큰으로 인증 주체(UserPrincipal)를 만든다.
+ * cached 모드는 사용자 조회 결과를 TTL 동안 캐시해 캐시된 사용자는 DB를 거치지 않고,
+ * stateless 모드는 토큰 클레임(id, email)만으로 주체를 만든다.
+ * 캐시에는 엔티티가 아닌 불변 값만 두므로 요청끼리 같은 객체를 공유해도 안전하다.
+ * 캐시는 인스턴스별이므로 다른 인스턴스에서 바뀐 프로필은 TTL 안에 반영된다.
+ */
+@Component
+@RequiredArgsConstructor
+public class PrincipalResolver {
+
+    private final UserRepository userRepository;
+    private final JwtProperties jwtProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<UUID, UserPrincipal> principals;
+
+    @PostConstruct
+    void initCache() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(jwtProperties.getPrincipalCacheMaxSize())
+                .expireAfterWrite(jwtProperties.getPrincipalCacheTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.principal");
+    }
+
+    /**
+     * 사용자가 없으면 null (캐시하지 않음)
+     */
+    public UserPrincipal resolve(VerifiedToken token) {
+        if (jwtProperties.getPrincipalMode() == JwtProperties.PrincipalMode.STATELESS) {
+            return new UserPrincipal(token.userId(), token.email());
+        }
+        return principals.get(token.userId(), id -> userRepository.findById(id)
+                .map(UserPrincipal::from)
+                .orElse(null));
+    }
+
+    /**
+     * 프로필 변경/로그아웃 시 호출. 트랜잭션 안이면 커밋 전에 다른 요청이 이전 값을 다시 캐시할 수 있으므로 커밋 후 한 번 더 비운다
+     */
+    public void invalidate(UUID userId) {
+        principals.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(userId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package moleep.screenmate.security.jwt;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * 서명과 만료를 검증한 토큰의 클레임. 요청당 한 번만 만들어 필터 간에 공유한다
+ */
+public record VerifiedToken(UUID userId, String type, String email, String deviceId, String tokenId,
+                            Instant expiresAt) {
+
+    public boolean isAccessToken() {
+        return JwtTokenProvider.ACCESS_TOKEN_TYPE.equals(type);
+    }
+
+    public boolean isRefreshToken() {
+        return JwtTokenProvider.REFRESH_TOKEN_TYPE.equals(type);
+    }
+}
@@ -3,15 +3,22 @@ package moleep.screenmate.security.oauth;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier.Builder;
 import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.config.GoogleOAuthProperties;
 import moleep.screenmate.exception.UnauthorizedException;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.util.Collections;
 
+/**
+ * Google ID 토큰 검증. 검증기와 HTTP 트랜스포트는 한 번만 만들어 공유하고,
+ * 공개 키는 GooglePublicKeysCache가 캐시하며 만료 전에 미리 갱신한다.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -19,16 +26,23 @@ public class GoogleIdTokenVerifier {
 
     private final GoogleOAuthProperties googleOAuthProperties;
 
+    private GooglePublicKeysCache publicKeys;
+    private com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier verifier;
+
+    @PostConstruct
+    void init() {
+        publicKeys = new GooglePublicKeysCache(new NetHttpTransport(), googleOAuthProperties.getCertsUrl(),
+                googleOAuthProperties.getKeysStaleGrace(), googleOAuthProperties.getKeysUnknownKeyRefetchInterval());
+        verifier = new Builder(publicKeys)
+                .setAudience(Collections.singletonList(googleOAuthProperties.getClientId()))
+                .build();
+    }
+
     public GoogleUserInfo verify(String idTokenString) {
         try {
-            com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier verifier =
-                    new Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
-                            .setAudience(Collections.singletonList(googleOAuthProperties.getClientId()))
-                            .build();
-
-            GoogleIdToken idToken = verifier.verify(idTokenString);
+            GoogleIdToken idToken = GoogleIdToken.parse(verifier.getJsonFactory(), idTokenString);
 
-            if (idToken == null) {
+            if (!verifier.verify(idToken) && !verifyWithFreshKeys(idToken)) {
                 throw new UnauthorizedException("INVALID_GOOGLE_TOKEN", "Invalid Google ID token");
             }
 
@@ -49,4 +63,34 @@ public class GoogleIdTokenVerifier {
             throw new UnauthorizedException("GOOGLE_VERIFICATION_FAILED", "Failed to verify Google ID token");
         }
     }
+
+    /**
+     * 발급자/대상/유효 시간은 맞는데 서명만 맞지 않으면 캐시에 없는 새 키일 수 있으므로 키를 다시 받아 한 번 더 검증한다
+     */
+    private boolean verifyWithFreshKeys(GoogleIdToken idToken) throws GeneralSecurityException, IOException {
+        boolean payloadValid = idToken.verifyIssuer(verifier.getIssuers())
+                && idToken.verifyAudience(verifier.getAudience())
+                && idToken.verifyTime(verifier.getClock().currentTimeMillis(), verifier.getAcceptableTimeSkewSeconds());
+        if (!payloadValid || !publicKeys.refreshForUnknownKey()) {
+            return false;
+        }
+        log.info("Refetched Google public keys for a token signed with an unknown key");
+        return verifier.verify(idToken);
+    }
+
+    /**
+     * 만료가 가까워진 공개 키를 로그인 요청과 상관없이 미리 갱신한다. 첫 실행에서 키를 미리 받아 둔다
+     */
+    @Scheduled(fixedDelayString = "${google.oauth.keys-refresh-check-interval:1m}")
+    void refreshPublicKeys() {
+        if (!publicKeys.needsRefresh(googleOAuthProperties.getKeysRefreshAhead())) {
+            return;
+        }
+        try {
+            publicKeys.refreshNow();
+            log.debug("Refreshed Google public keys, expires at {}", publicKeys.getExpirationTimeMilliseconds());
+        } catch (Exception e) {
+            log.warn("Failed to refresh Google public keys, serving cached keys: {}", e.getMessage());
+        }
+    }
 }
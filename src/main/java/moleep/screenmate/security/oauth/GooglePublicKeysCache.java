@@ -0,0 +1,78 @@
+package moleep.screenmate.security.oauth;
+
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+/**
+ * Google 공개 키(JWKS) 캐시. 만료 시각은 라이브러리가 응답의 Cache-Control max-age(Age 차감)로 정한다.
+ * 요청 경로에서는 키가 만료돼도 유예 기간 안이면 이전 키를 그대로 쓰고(stale-while-revalidate),
+ * 실제 갱신은 refreshNow()를 부르는 스케줄러가 맡는다.
+ * 캐시된 키로 서명이 맞지 않으면(Google이 키를 교체한 직후의 새 kid) 최소 간격을 두고 한 번 더 받아 본다.
+ */
+class GooglePublicKeysCache extends GooglePublicKeysManager {
+
+    private final long staleGraceMillis;
+    private final long unknownKeyRefetchMillis;
+
+    private long lastUnknownKeyRefetch = Long.MIN_VALUE;
+
+    GooglePublicKeysCache(HttpTransport transport, String certsUrl, Duration staleGrace,
+                          Duration unknownKeyRefetchInterval) {
+        super(new Builder(transport, GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(certsUrl));
+        this.staleGraceMillis = staleGrace.toMillis();
+        this.unknownKeyRefetchMillis = unknownKeyRefetchInterval.toMillis();
+    }
+
+    /**
+     * getPublicKeys()가 만료 5분 전부터 부르는 동기 갱신. 아직 한 번도 받지 못했거나
+     * 유예 기간까지 지났을 때만 실제로 내려받는다
+     */
+    @Override
+    public GooglePublicKeysManager refresh() throws GeneralSecurityException, IOException {
+        if (isLoaded() && getClock().currentTimeMillis() < getExpirationTimeMilliseconds() + staleGraceMillis) {
+            return this;
+        }
+        return super.refresh();
+    }
+
+    /**
+     * 캐시 상태와 상관없이 키를 다시 내려받는다. 실패하면 기존 키와 만료 시각이 유지된다
+     */
+    void refreshNow() throws GeneralSecurityException, IOException {
+        super.refresh();
+    }
+
+    /**
+     * 모르는 키로 서명된 토큰을 받았을 때 키를 다시 받는다. 위조 토큰으로 Google을 두드리지 않도록
+     * unknown-key-refetch-interval에 한 번만 실제로 내려받고, 내려받았으면 true
+     */
+    boolean refreshForUnknownKey() throws GeneralSecurityException, IOException {
+        synchronized (this) {
+            long now = getClock().currentTimeMillis();
+            if (lastUnknownKeyRefetch != Long.MIN_VALUE && now - lastUnknownKeyRefetch < unknownKeyRefetchMillis) {
+                return false;
+            }
+            lastUnknownKeyRefetch = now;
+        }
+        refreshNow();
+        return true;
+    }
+
+    boolean isLoaded() {
+        return getExpirationTimeMilliseconds() > 0;
+    }
+
+    /**
+     * 만료까지 남은 시간이 refreshAhead보다 짧으면 갱신 대상
+     */
+    boolean needsRefresh(Duration refreshAhead) {
+        return !isLoaded()
+                || getClock().currentTimeMillis() + refreshAhead.toMillis() >= getExpirationTimeMilliseconds();
+    }
+}
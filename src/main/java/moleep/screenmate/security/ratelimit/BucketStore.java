@@ -0,0 +1,17 @@
+package moleep.screenmate.security.ratelimit;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+
+/**
+ * 키별 rate limit 버킷 저장소. rate-limit.backend 값에 따라 구현이 선택된다
+ */
+public interface BucketStore {
+
+    Bucket resolve(String key, BucketConfiguration configuration);
+
+    /**
+     * 호출자가 계속 들고 쓰는 버킷. 한 번에 여러 토큰을 쓰는 할당량 버킷처럼 만료 캐시에 맡기기 어려운 경우에 사용한다
+     */
+    Bucket resolvePinned(String key, BucketConfiguration configuration);
+}
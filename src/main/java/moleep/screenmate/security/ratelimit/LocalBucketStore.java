@@ -0,0 +1,108 @@
+package moleep.screenmate.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucket;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import moleep.screenmate.config.RateLimitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * 인스턴스 메모리에 버킷을 두는 저장소. 버킷이 다시 가득 차는 시점에 만료되므로
+ * 한동안 요청이 없는 키(가득 찬 버킷)부터 메모리에서 빠진다.
+ */
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "local", matchIfMissing = true)
+@RequiredArgsConstructor
+public class LocalBucketStore implements BucketStore {
+
+    // Bucket + 단일 Bandwidth 상태 + 캐시 엔트리의 대략적인 크기
+    private static final long ESTIMATED_BYTES_PER_BUCKET = 320;
+
+    private final RateLimitProperties rateLimitProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<String, LocalBucket> buckets;
+
+    @PostConstruct
+    void initCache() {
+        buckets = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getMaxBuckets())
+                .expireAfter(new UntilFull())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+        Gauge.builder("rate-limit.buckets.memory", buckets, cache -> cache.estimatedSize() * ESTIMATED_BYTES_PER_BUCKET)
+                .description("Estimated heap used by rate limit buckets")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration) {
+        return buckets.get(key, k -> build(configuration));
+    }
+
+    /**
+     * 만료 시점은 조회 시점 기준으로 토큰 하나 분량만 감안하므로, 여러 토큰을 쓰는 버킷은 캐시에 넣지 않는다
+     */
+    @Override
+    public Bucket resolvePinned(String key, BucketConfiguration configuration) {
+        return build(configuration);
+    }
+
+    private LocalBucket build(BucketConfiguration configuration) {
+        LocalBucketBuilder builder = Bucket.builder();
+        for (Bandwidth bandwidth : configuration.getBandwidths()) {
+            builder.addLimit(bandwidth);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 버킷이 가득 찰 때까지 남은 시간만큼 유지한다. 만료된 버킷은 새로 만든 버킷과 상태가 같으므로 제한이 느슨해지지 않는다.
+     * 조회 직후 토큰 하나가 소비되는 것을 감안해 한 토큰 분량의 리필 시간을 더한다.
+     */
+    private static final class UntilFull implements Expiry<String, LocalBucket> {
+
+        @Override
+        public long expireAfterCreate(String key, LocalBucket bucket, long currentTime) {
+            return untilFull(bucket);
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalBucket bucket, long currentTime, long currentDuration) {
+            return untilFull(bucket);
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalBucket bucket, long currentTime, long currentDuration) {
+            return untilFull(bucket);
+        }
+
+        /**
+         * 여러 대역폭이 있으면 가장 늦게 차는 대역폭 기준
+         */
+        private long untilFull(LocalBucket bucket) {
+            long available = bucket.getAvailableTokens();
+            long result = 0;
+            for (Bandwidth bandwidth : bucket.getConfiguration().getBandwidths()) {
+                long nanosPerToken = bandwidth.getRefillPeriodNanos() / Math.max(bandwidth.getRefillTokens(), 1);
+                long missing = Math.max(bandwidth.getCapacity() - available, 0);
+                long fullRefillNanos = nanosPerToken * bandwidth.getCapacity();
+                result = Math.max(result, Math.min(fullRefillNanos, (missing + 1) * nanosPerToken));
+            }
+            return result;
+        }
+    }
+}
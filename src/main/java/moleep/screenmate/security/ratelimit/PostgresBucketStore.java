@@ -0,0 +1,107 @@
+package moleep.screenmate.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.distributed.jdbc.PrimaryKeyMapper;
+import io.github.bucket4j.distributed.proxy.optimization.DelayParameters;
+import io.github.bucket4j.distributed.proxy.optimization.Optimization;
+import io.github.bucket4j.distributed.proxy.optimization.Optimizations;
+import io.github.bucket4j.postgresql.Bucket4jPostgreSQL;
+import io.github.bucket4j.postgresql.PostgreSQLSelectForUpdateBasedProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.RateLimitProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * 모든 인스턴스가 rate_limit_buckets 테이블의 버킷을 공유하는 저장소.
+ * 버킷 프록시는 로컬에 캐시하고, delaying 최적화로 토큰 몇 개/짧은 시간 단위로 묶어서 DB와 동기화한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "rate-limit.backend", havingValue = "postgres")
+@RequiredArgsConstructor
+public class PostgresBucketStore implements BucketStore {
+
+    private static final String TABLE = "rate_limit_buckets";
+    // 마지막 기록 후 버킷이 다시 가득 찰 때까지는 행을 유지
+    private static final Duration KEEP_AFTER_FULL = Duration.ofSeconds(10);
+
+    private final DataSource dataSource;
+    private final RateLimitProperties rateLimitProperties;
+    private final MeterRegistry meterRegistry;
+
+    private PostgreSQLSelectForUpdateBasedProxyManager<String> proxyManager;
+    private Optimization optimization;
+    private Cache<String, Bucket> proxies;
+
+    @PostConstruct
+    void init() {
+        proxyManager = Bucket4jPostgreSQL.selectForUpdateBasedBuilder(dataSource)
+                .primaryKeyMapper(PrimaryKeyMapper.STRING)
+                .table(TABLE)
+                .idColumn("id")
+                .stateColumn("state")
+                .expiresAtColumn("expires_at")
+                .expirationAfterWrite(ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(KEEP_AFTER_FULL))
+                .build();
+
+        RateLimitProperties.Postgres postgres = rateLimitProperties.getPostgres();
+        optimization = Optimizations.delaying(
+                new DelayParameters(postgres.getMaxUnsyncedTokens(), postgres.getMaxUnsyncedTime()));
+
+        // 로컬에 쌓인 미동기화 토큰이 버려지지 않도록 동기화 주기보다 충분히 길게 유지
+        proxies = Caffeine.newBuilder()
+                .maximumSize(rateLimitProperties.getMaxBuckets())
+                .expireAfterAccess(Duration.ofMinutes(1))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, proxies, "rate-limit.buckets");
+    }
+
+    @Override
+    public Bucket resolve(String key, BucketConfiguration configuration) {
+        return proxies.get(key, k -> build(k, configuration));
+    }
+
+    /**
+     * 상태는 어차피 테이블에 있으므로 프록시만 캐시 밖에서 만든다.
+     * 한 번에 많은 토큰을 쓰는 버킷이라 delaying 최적화가 흡수하지 못하므로 최적화 없이 매번 동기화한다
+     * (호출 횟수를 줄이는 건 호출자 몫, 예: OpenAiQuotaGovernor의 몫 단위 대여)
+     */
+    @Override
+    public Bucket resolvePinned(String key, BucketConfiguration configuration) {
+        return proxyManager.builder().build(key, () -> configuration);
+    }
+
+    private Bucket build(String key, BucketConfiguration configuration) {
+        return proxyManager.builder()
+                .withOptimization(optimization)
+                .build(key, () -> configuration);
+    }
+
+    @Scheduled(fixedDelayString = "${rate-limit.postgres.cleanup-interval:5m}")
+    void removeExpiredBuckets() {
+        int batchSize = rateLimitProperties.getPostgres().getCleanupBatchSize();
+        int removed;
+        int total = 0;
+        do {
+            removed = proxyManager.removeExpired(batchSize);
+            total += removed;
+        } while (removed == batchSize);
+        if (total > 0) {
+            log.debug("Removed {} expired rate limit buckets", total);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package moleep.screenmate.security.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import moleep.screenmate.config.RateLimitProperties;
+import moleep.screenmate.dto.ErrorResponse;
+import moleep.screenmate.security.jwt.BearerTokenResolver;
+import moleep.screenmate.security.jwt.VerifiedToken;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 인증 전에 라우트 그룹별 토큰 버킷을 적용하는 필터.
+ * 초과 시 예외를 던지지 않고 429 응답을 바로 작성한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitProperties rateLimitProperties;
+    private final BucketStore bucketStore;
+    private final BearerTokenResolver bearerTokenResolver;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    private List<RouteLimit> routeLimits;
+
+    @PostConstruct
+    void init() {
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        routeLimits = new ArrayList<>();
+        for (RateLimitProperties.Route route : rateLimitProperties.getRoutes()) {
+            List<PathPattern> patterns = route.getPaths().stream().map(parser::parse).toList();
+            BucketConfiguration configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(route.getCapacity())
+                            .refillGreedy(route.getCapacity(), route.getPeriod())
+                            .build())
+                    .build();
+            routeLimits.add(new RouteLimit(route.getName(), patterns, route.getCapacity(), configuration));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteLimit limit = match(request);
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = "route:" + limit.name() + ":" + clientKey(request);
+        ConsumptionProbe probe = bucketStore.resolve(key, limit.configuration()).tryConsumeAndReturnRemaining(1);
+
+        response.setHeader("RateLimit-Limit", String.valueOf(limit.capacity()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        response.setHeader("RateLimit-Reset", String.valueOf(toSeconds(probe.getNanosToWaitForReset())));
+
+        if (probe.isConsumed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        meterRegistry.counter("rate-limit.rejected", "route", limit.name()).increment();
+        reject(request, response, toSeconds(probe.getNanosToWaitForRefill()));
+    }
+
+    private RouteLimit match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (RouteLimit limit : routeLimits) {
+            for (PathPattern pattern : limit.patterns()) {
+                if (pattern.matches(path)) {
+                    return limit;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 유효한 액세스 토큰이 있으면 사용자 기준, 없으면 IP 기준.
+     * 신뢰하는 프록시 뒤에서는 RemoteIpValve가 X-Forwarded-For의 클라이언트 주소로 바꿔 둔다 (server.forward-headers-strategy)
+     */
+    private String clientKey(HttpServletRequest request) {
+        return bearerTokenResolver.resolve(request)
+                .filter(VerifiedToken::isAccessToken)
+                .map(token -> "user:" + token.userId())
+                .orElseGet(() -> "ip:" + request.getRemoteAddr());
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long retryAfterSeconds)
+            throws IOException {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.of(
+                status.value(),
+                status.getReasonPhrase(),
+                "RATE_LIMIT_EXCEEDED",
+                "Rate limit exceeded. Please try again later.",
+                request.getRequestURI()
+        ));
+    }
+
+    private long toSeconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private record RouteLimit(String name, List<PathPattern> patterns, long capacity,
+                              BucketConfiguration configuration) {
+    }
+}
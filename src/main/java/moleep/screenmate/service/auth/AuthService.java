@@ -5,13 +5,16 @@ import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.config.GoogleOAuthProperties;
 import moleep.screenmate.config.JwtProperties;
 import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.domain.user.UserRepository;
 import moleep.screenmate.dto.auth.AuthResponse;
 import moleep.screenmate.dto.auth.GoogleLoginRequest;
 import moleep.screenmate.dto.auth.RefreshTokenRequest;
 import moleep.screenmate.exception.BadRequestException;
+import moleep.screenmate.exception.InvalidTokenException;
 import moleep.screenmate.exception.UnauthorizedException;
 import moleep.screenmate.security.jwt.JwtTokenProvider;
+import moleep.screenmate.security.jwt.PrincipalResolver;
 import moleep.screenmate.security.oauth.GoogleIdTokenVerifier;
 import moleep.screenmate.security.oauth.GoogleUserInfo;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -33,6 +36,8 @@ public class AuthService {
     private final TokenService tokenService;
     private final JwtTokenProvider jwtTokenProvider;
     private final JwtProperties jwtProperties;
+    private final PrincipalResolver principalResolver;
+    private final WebClient googleOAuthWebClient;
 
     @Transactional
     public AuthResponse loginWithGoogle(GoogleLoginRequest request) {
@@ -46,23 +51,10 @@ public class AuthService {
             throw new UnauthorizedException("EMAIL_NOT_VERIFIED", "Email is not verified");
         }
 
-        User user = userRepository.findByGoogleId(googleUser.getGoogleId())
-                .map(existingUser -> {
-                    existingUser.updateProfile(googleUser.getDisplayName(), googleUser.getProfileImageUrl());
-                    existingUser.updateLastLogin();
-                    return userRepository.save(existingUser);
-                })
-                .orElseGet(() -> {
-                    User newUser = User.builder()
-                            .googleId(googleUser.getGoogleId())
-                            .email(googleUser.getEmail())
-                            .displayName(googleUser.getDisplayName())
-                            .profileImageUrl(googleUser.getProfileImageUrl())
-                            .build();
-                    newUser.updateLastLogin();
-                    return userRepository.save(newUser);
-                });
+        User user = userRepository.upsertGoogleLogin(googleUser.getGoogleId(), googleUser.getEmail(),
+                googleUser.getDisplayName(), googleUser.getProfileImageUrl());
 
+        principalResolver.invalidate(user.getId());
         log.info("User logged in: {} ({})", user.getEmail(), user.getId());
 
         String accessToken = jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail());
@@ -92,10 +84,7 @@ public class AuthService {
         form.add("redirect_uri", request.getRedirectUri());
         form.add("grant_type", "authorization_code");
 
-        GoogleTokenResponse response = WebClient.builder()
-                .baseUrl("https://oauth2.googleapis.com")
-                .build()
-                .post()
+        GoogleTokenResponse response = googleOAuthWebClient.post()
                 .uri("/token")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .bodyValue(form)
@@ -123,25 +112,27 @@ public class AuthService {
 
     @Transactional
     public AuthResponse refreshAccessToken(RefreshTokenRequest request) {
-        var storedToken = tokenService.validateRefreshToken(request.getRefreshToken(), request.getDeviceId());
-        User user = storedToken.getUser();
+        TokenService.RotatedToken rotated =
+                tokenService.rotateRefreshToken(request.getRefreshToken(), request.getDeviceId());
+        User user = userRepository.findById(rotated.userId())
+                .orElseThrow(() -> new InvalidTokenException("User not found"));
 
         String accessToken = jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail());
-        String newRefreshToken = tokenService.createOrUpdateRefreshToken(user, request.getDeviceId(), storedToken.getDeviceName());
 
         log.info("Token refreshed for user: {}", user.getId());
 
-        return buildAuthResponse(user, accessToken, newRefreshToken);
+        return buildAuthResponse(user, accessToken, rotated.refreshToken());
     }
 
     @Transactional
-    public void logout(User user, String refreshToken) {
+    public void logout(UserPrincipal user, String refreshToken) {
         if (refreshToken != null && !refreshToken.isBlank()) {
             tokenService.revokeRefreshTokenByRawToken(refreshToken);
         } else {
-            tokenService.revokeRefreshToken(user);
+            tokenService.revokeAllSessions(user.id());
         }
-        log.info("User logged out: {}", user.getId());
+        principalResolver.invalidate(user.id());
+        log.info("User logged out: {}", user.id());
     }
 
     private AuthResponse buildAuthResponse(User user, String accessToken, String refreshToken) {
@@ -1,12 +1,17 @@
 package moleep.screenmate.service.auth;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import moleep.screenmate.domain.token.RefreshToken;
-import moleep.screenmate.domain.token.RefreshTokenRepository;
+import moleep.screenmate.config.SessionProperties;
+import moleep.screenmate.domain.session.UserSessionRepository;
 import moleep.screenmate.domain.user.User;
 import moleep.screenmate.exception.InvalidTokenException;
 import moleep.screenmate.security.jwt.JwtTokenProvider;
+import moleep.screenmate.security.jwt.VerifiedToken;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,91 +20,97 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Base64;
-import java.util.Optional;
+import java.util.List;
 import java.util.UUID;
 
+/**
+ * 기기별 리프레시 토큰 세션(user_sessions) 관리. 다른 기기에서 로그인해도 기존 기기 세션은 유지된다
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TokenService {
 
-    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserSessionRepository userSessionRepository;
     private final JwtTokenProvider jwtTokenProvider;
+    private final SessionProperties sessionProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter expiredDeleted;
+
+    public record RotatedToken(UUID userId, String refreshToken) {
+    }
+
+    @PostConstruct
+    void initMetrics() {
+        expiredDeleted = Counter.builder("auth.session.cleanup.deleted")
+                .description("Expired user sessions removed by cleanup")
+                .register(meterRegistry);
+    }
 
     @Transactional
     public String createOrUpdateRefreshToken(User user, String deviceId, String deviceName) {
-        String rawToken = jwtTokenProvider.generateRefreshToken(user.getId(), deviceId);
-        String tokenHash = hashToken(rawToken);
+        String tokenId = UUID.randomUUID().toString();
+        String rawToken = jwtTokenProvider.generateRefreshToken(user.getId(), deviceId, tokenId);
         Instant expiresAt = jwtTokenProvider.getRefreshTokenExpiry();
 
-        Optional<RefreshToken> existingToken = refreshTokenRepository.findByUserId(user.getId());
-
-        if (existingToken.isPresent()) {
-            RefreshToken token = existingToken.get();
-            token.updateToken(tokenHash, deviceId, deviceName, expiresAt);
-            refreshTokenRepository.save(token);
-            log.info("Updated refresh token for user: {}", user.getId());
-        } else {
-            RefreshToken token = RefreshToken.builder()
-                    .user(user)
-                    .tokenHash(tokenHash)
-                    .deviceId(deviceId)
-                    .deviceName(deviceName)
-                    .expiresAt(expiresAt)
-                    .build();
-            refreshTokenRepository.save(token);
-            log.info("Created new refresh token for user: {}", user.getId());
-        }
+        userSessionRepository.upsertForDevice(user.getId(), deviceId, deviceName, hashToken(rawToken), tokenId,
+                expiresAt);
+        log.info("Issued refresh token for user: {} (device: {})", user.getId(), deviceId);
 
         return rawToken;
     }
 
-    @Transactional(readOnly = true)
-    public RefreshToken validateRefreshToken(String rawToken, String deviceId) {
-        if (!jwtTokenProvider.isRefreshToken(rawToken)) {
+    /**
+     * 리프레시 토큰을 검증하고 같은 기기 세션의 새 토큰으로 교체한다.
+     * 폐기/만료/재사용 확인과 교체를 조건부 UPDATE 한 번으로 처리해 DB 왕복은 호출당 한 번이다
+     */
+    @Transactional
+    public RotatedToken rotateRefreshToken(String rawToken, String deviceId) {
+        VerifiedToken verified = jwtTokenProvider.verify(rawToken);
+        if (!verified.isRefreshToken()) {
             throw new InvalidTokenException("Token is not a refresh token");
         }
 
-        UUID userId = jwtTokenProvider.getUserIdFromToken(rawToken);
-        String tokenHash = hashToken(rawToken);
+        String newTokenId = UUID.randomUUID().toString();
+        String newRawToken = jwtTokenProvider.generateRefreshToken(verified.userId(), deviceId, newTokenId);
+        UUID userId = userSessionRepository.rotate(hashToken(rawToken), deviceId, hashToken(newRawToken),
+                        newTokenId, jwtTokenProvider.getRefreshTokenExpiry())
+                .orElseThrow(() -> new InvalidTokenException(
+                        "Refresh token is expired, revoked or already used on this device"));
 
-        RefreshToken storedToken = refreshTokenRepository.findByUserId(userId)
-                .orElseThrow(() -> new InvalidTokenException("Refresh token not found"));
-
-        if (!storedToken.getTokenHash().equals(tokenHash)) {
-            throw new InvalidTokenException("Refresh token does not match");
-        }
-
-        if (!storedToken.isValid()) {
-            throw new InvalidTokenException("Refresh token is expired or revoked");
-        }
-
-        if (!storedToken.getDeviceId().equals(deviceId)) {
-            throw new InvalidTokenException("Device ID does not match. Session may have been invalidated by login on another device.");
-        }
-
-        return storedToken;
+        return new RotatedToken(userId, newRawToken);
     }
 
+    /**
+     * 사용자의 모든 기기 세션을 폐기
+     */
     @Transactional
-    public void revokeRefreshToken(User user) {
-        refreshTokenRepository.findByUserId(user.getId())
-                .ifPresent(token -> {
-                    token.revoke();
-                    refreshTokenRepository.save(token);
-                    log.info("Revoked refresh token for user: {}", user.getId());
-                });
+    public void revokeAllSessions(UUID userId) {
+        List<String> tokenIds = userSessionRepository.revokeAllByUserId(userId);
+        log.info("Revoked {} sessions for user: {}", tokenIds.size(), userId);
     }
 
     @Transactional
     public void revokeRefreshTokenByRawToken(String rawToken) {
-        String tokenHash = hashToken(rawToken);
-        refreshTokenRepository.findByTokenHash(tokenHash)
-                .ifPresent(token -> {
-                    token.revoke();
-                    refreshTokenRepository.save(token);
-                    log.info("Revoked refresh token by token hash");
-                });
+        userSessionRepository.revokeByTokenHash(hashToken(rawToken))
+                .ifPresent(tokenId -> log.info("Revoked refresh token by token hash"));
+    }
+
+    @Scheduled(fixedDelayString = "${auth.session.cleanup-interval:10m}")
+    void removeExpiredSessions() {
+        int batchSize = sessionProperties.getCleanupBatchSize();
+        Instant now = Instant.now();
+        int removed;
+        int total = 0;
+        do {
+            removed = userSessionRepository.deleteExpiredBatch(now, batchSize);
+            total += removed;
+            expiredDeleted.increment(removed);
+        } while (removed == batchSize);
+        if (total > 0) {
+            log.debug("Removed {} expired user sessions", total);
+        }
     }
 
     private String hashToken(String token) {
@@ -0,0 +1,175 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.CharacterLaneProperties;
+import moleep.screenmate.exception.RateLimitExceededException;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 캐릭터별 실행 레인. 같은 캐릭터의 생성 요청은 한 번에 하나씩 실행되고 나머지는 순서대로 대기한다.
+ * 다른 캐릭터끼리는 서로 막지 않으며, 대기열이 가득 차면 429로 거절한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CharacterLanes {
+
+    private final CharacterLaneProperties laneProperties;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, Lane> lanes = new ConcurrentHashMap<>();
+    private final Map<Object, Mono<?>> inFlight = new ConcurrentHashMap<>();
+    private Counter rejected;
+    private Counter collapsed;
+
+    @PostConstruct
+    void initMetrics() {
+        Gauge.builder("llm.lane.active", lanes, Map::size)
+                .description("Characters with a running generate request")
+                .register(meterRegistry);
+        rejected = meterRegistry.counter("llm.lane.requests", "result", "rejected");
+        collapsed = meterRegistry.counter("llm.lane.requests", "result", "collapsed");
+    }
+
+    /**
+     * 레인이 비면 Lease를 발행한다. 작업이 끝나면 반드시 Lease.release()를 호출해야 한다
+     */
+    public Mono<Lease> acquire(UUID characterId) {
+        return Mono.create(sink -> {
+            Waiter waiter = new Waiter(sink);
+            sink.onCancel(() -> {
+                if (waiter.cancel()) {
+                    lanes.computeIfPresent(characterId, (id, lane) -> {
+                        lane.waiting.remove(waiter);
+                        return lane;
+                    });
+                } else {
+                    // 레인을 넘겨받았지만 Lease가 전달되기 전에 취소됨
+                    release(characterId);
+                }
+            });
+
+            AtomicBoolean grantNow = new AtomicBoolean();
+            AtomicBoolean queueFull = new AtomicBoolean();
+            lanes.compute(characterId, (id, lane) -> {
+                Lane current = lane != null ? lane : new Lane();
+                if (!current.busy) {
+                    current.busy = true;
+                    grantNow.set(true);
+                } else if (current.waiting.size() >= laneProperties.getMaxQueuedPerCharacter()) {
+                    queueFull.set(true);
+                } else {
+                    current.waiting.add(waiter);
+                }
+                return current;
+            });
+
+            if (queueFull.get()) {
+                rejected.increment();
+                sink.error(new RateLimitExceededException("Too many pending requests for this character."));
+            } else if (grantNow.get() && waiter.grant()) {
+                sink.success(new Lease(characterId));
+            } else if (grantNow.get()) {
+                // 발행 전에 취소된 경우 레인을 바로 넘긴다
+                release(characterId);
+            }
+        });
+    }
+
+    /**
+     * 같은 key의 요청이 실행 중이면 새로 실행하지 않고 그 결과를 공유한다.
+     * 결과를 공유해도 안전한 경우(클라이언트가 보낸 멱등 키)에만 사용한다. 완료된 요청의 결과는 보관하지 않는다
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Mono<T> singleFlight(Object key, Supplier<Mono<T>> work) {
+        return Mono.defer(() -> {
+            AtomicBoolean created = new AtomicBoolean();
+            Mono<T> shared = (Mono<T>) inFlight.computeIfAbsent(key, k -> {
+                created.set(true);
+                return work.get()
+                        .doFinally(signal -> inFlight.remove(k))
+                        .cache();
+            });
+            if (!created.get()) {
+                collapsed.increment();
+            }
+            return shared;
+        });
+    }
+
+    private void release(UUID characterId) {
+        Waiter[] next = new Waiter[1];
+        lanes.computeIfPresent(characterId, (id, lane) -> {
+            Waiter waiter;
+            while ((waiter = lane.waiting.poll()) != null) {
+                if (waiter.grant()) {
+                    next[0] = waiter;
+                    return lane;
+                }
+            }
+            // 대기자가 없으면 레인을 제거해 맵 크기를 활성 캐릭터 수로 유지
+            return null;
+        });
+
+        if (next[0] != null) {
+            next[0].sink.success(new Lease(characterId));
+        }
+    }
+
+    public final class Lease {
+
+        private final UUID characterId;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Lease(UUID characterId) {
+            this.characterId = characterId;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                CharacterLanes.this.release(characterId);
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final ArrayDeque<Waiter> waiting = new ArrayDeque<>();
+        private boolean busy;
+    }
+
+    private static final class Waiter {
+        private static final int WAITING = 0;
+        private static final int GRANTED = 1;
+        private static final int CANCELLED = 2;
+
+        private final MonoSink<Lease> sink;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        private Waiter(MonoSink<Lease> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            return state.compareAndSet(WAITING, GRANTED);
+        }
+
+        boolean cancel() {
+            return state.compareAndSet(WAITING, CANCELLED);
+        }
+    }
+}
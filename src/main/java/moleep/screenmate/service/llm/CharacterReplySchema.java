@@ -0,0 +1,86 @@
+package moleep.screenmate.service.llm;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import moleep.screenmate.validation.ActionWhitelistValidator;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LlmGenerateResponse에 대응하는 Structured Outputs(strict json_schema) response_format.
+ * 액션 타입은 화이트리스트, intimacyDelta는 허용된 값으로만 제한된다.
+ * strict 모드는 자유 형식 객체를 허용하지 않으므로 액션 params는 [{key, value}] 배열로 받는다.
+ * 속성 순서대로 생성되므로 스트리밍에서 바로 흘려보낼 message를 맨 앞에 둔다.
+ */
+@Component
+@RequiredArgsConstructor
+public class CharacterReplySchema {
+
+    static final List<Double> INTIMACY_DELTAS = List.of(-0.3, 0.0, 0.1);
+    private static final String SCHEMA_NAME = "character_reply";
+
+    private final ActionWhitelistValidator actionWhitelistValidator;
+
+    private Map<String, Object> responseFormat;
+
+    @PostConstruct
+    void init() {
+        Map<String, Object> param = object(properties(
+                "key", Map.of("type", "string"),
+                "value", Map.of("anyOf", List.of(
+                        Map.of("type", "string"),
+                        Map.of("type", "number"),
+                        Map.of("type", "boolean")))));
+
+        Map<String, Object> action = object(properties(
+                "type", Map.of("type", "string", "enum", actionWhitelistValidator.allowedTypes()),
+                "params", Map.of("type", "array", "items", param)));
+
+        Map<String, Object> reply = object(properties(
+                "message", Map.of("type", "string"),
+                "actions", Map.of("type", "array", "items", action),
+                "emotion", Map.of("type", "string"),
+                "intimacyDelta", Map.of("type", "number", "enum", INTIMACY_DELTAS),
+                "screenDescription", Map.of("type", List.of("string", "null"))));
+
+        Map<String, Object> jsonSchema = new LinkedHashMap<>();
+        jsonSchema.put("name", SCHEMA_NAME);
+        jsonSchema.put("strict", true);
+        jsonSchema.put("schema", reply);
+
+        Map<String, Object> format = new LinkedHashMap<>();
+        format.put("type", "json_schema");
+        format.put("json_schema", jsonSchema);
+        responseFormat = format;
+    }
+
+    public Map<String, Object> responseFormat() {
+        return responseFormat;
+    }
+
+    /**
+     * strict 모드 규칙: 모든 속성이 required이고 추가 속성은 허용하지 않는다
+     */
+    private static Map<String, Object> object(Map<String, Object> properties) {
+        Map<String, Object> object = new LinkedHashMap<>();
+        object.put("type", "object");
+        object.put("properties", properties);
+        object.put("required", List.copyOf(properties.keySet()));
+        object.put("additionalProperties", false);
+        return object;
+    }
+
+    /**
+     * 요청 바이트가 매번 같도록 선언 순서를 유지한다 (프롬프트 캐시)
+     */
+    private static Map<String, Object> properties(Object... namesAndSchemas) {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndSchemas.length; i += 2) {
+            properties.put((String) namesAndSchemas[i], namesAndSchemas[i + 1]);
+        }
+        return properties;
+    }
+}
@@ -0,0 +1,80 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.ConversationRetentionProperties;
+import moleep.screenmate.domain.conversation.CharacterConversationRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 요약이 저장된 뒤 보관 범위를 벗어난 오래된 대화를 작은 배치로 삭제한다.
+ * 최소 프롬프트 윈도우만큼의 최근 대화는 항상 남긴다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationCompactor {
+
+    private final CharacterConversationRepository conversationRepository;
+    private final ConversationRetentionProperties retentionProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter deletedTurns;
+
+    @PostConstruct
+    void initMetrics() {
+        deletedTurns = Counter.builder("llm.conversation.compaction.deleted")
+                .description("Conversation turns removed by retention compaction")
+                .register(meterRegistry);
+    }
+
+    public void compact(UUID characterId) {
+        if (!retentionProperties.isEnabled()) {
+            return;
+        }
+
+        try {
+            int deleted = deleteBeyondHorizon(characterId);
+            if (deleted > 0) {
+                log.info("Compacted {} conversation turns for character: {}", deleted, characterId);
+            }
+        } catch (InterruptedException e) {
+            // 종료 중인 워커 스레드의 인터럽트 상태를 유지하고 남은 배치는 다음 요약 때 정리한다
+            Thread.currentThread().interrupt();
+            log.info("Interrupted while compacting conversations for character: {}", characterId);
+        } catch (Exception e) {
+            log.warn("Failed to compact conversations for character: {}", characterId, e);
+        }
+    }
+
+    private int deleteBeyondHorizon(UUID characterId) throws InterruptedException {
+        int keep = Math.max(retentionProperties.getKeepTurns(), ConversationHistoryService.CONVERSATION_WINDOW);
+
+        // 보관할 가장 오래된 대화의 시각. 이보다 오래된 대화만 삭제 대상이다
+        List<Instant> cutoff = conversationRepository.findCreatedAtByCharacterId(characterId, PageRequest.of(keep - 1, 1));
+        if (cutoff.isEmpty()) {
+            return 0;
+        }
+
+        int batchSize = retentionProperties.getBatchSize();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = conversationRepository.deleteBatchOlderThan(characterId, cutoff.get(0), batchSize);
+            total += deleted;
+            deletedTurns.increment(deleted);
+            if (deleted == batchSize) {
+                Thread.sleep(retentionProperties.getBatchPause());
+            }
+        } while (deleted == batchSize);
+        return total;
+    }
+}
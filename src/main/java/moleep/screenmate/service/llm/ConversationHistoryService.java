@@ -0,0 +1,123 @@
+package moleep.screenmate.service.llm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.ConversationCacheProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.conversation.CharacterConversation;
+import moleep.screenmate.domain.conversation.CharacterConversationRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 캐릭터별 최근 대화 윈도우를 메모리에 유지하는 write-through 캐시.
+ * 캐시 미스일 때만 character_conversations를 조회하고, 전체 크기는 힙 예산으로 제한한다.
+ * 누적 턴 수는 characters.conversation_turns에 저장되며, 캐시된 윈도우가 이 값보다 뒤처지면
+ * (다른 인스턴스가 같은 캐릭터의 턴을 저장한 경우) 다시 조회한다.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConversationHistoryService {
+
+    public static final int CONVERSATION_WINDOW = 20;
+
+    private final CharacterConversationRepository conversationRepository;
+    private final CharacterRepository characterRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationCacheProperties cacheProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<UUID, ConversationWindow> windows;
+    private Counter staleReloads;
+
+    @PostConstruct
+    void initCache() {
+        windows = Caffeine.newBuilder()
+                .maximumWeight(cacheProperties.getMaxSize().toBytes())
+                .weigher((UUID characterId, ConversationWindow window) -> window.estimatedBytes())
+                .expireAfterAccess(cacheProperties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "llm.conversation.window");
+        staleReloads = Counter.builder("llm.conversation.window.stale")
+                .description("Cached conversation windows reloaded because turns were persisted elsewhere")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 최근 대화를 오래된 순서로 반환. character는 이번 요청에서 조회한 엔티티여야 하며,
+     * 그 conversation_turns 값으로 캐시된 윈도우가 최신인지 확인한다
+     */
+    public List<ConversationTurn> recentTurns(Character character) {
+        UUID characterId = character.getId();
+        long persistedTurns = character.getConversationTurns();
+        ConversationWindow window = windows.get(characterId, id -> load(id, persistedTurns));
+        if (window.isBehind(persistedTurns)) {
+            staleReloads.increment();
+            window = load(characterId, persistedTurns);
+            windows.put(characterId, window);
+        }
+        return window.snapshot();
+    }
+
+    /**
+     * 대화 저장과 턴 카운터 증가를 한 트랜잭션으로 처리하고, 커밋 후 캐시에 반영한다.
+     * 이번 저장으로 요약 주기를 넘겼는지 반환
+     */
+    public boolean appendTurns(Character character, String userMessage, String assistantMessage) {
+        List<ConversationTurn> written = new ArrayList<>(2);
+        Long totalTurns = transactionTemplate.execute(status -> {
+            if (userMessage != null && !userMessage.isBlank()) {
+                written.add(save(character, CharacterConversation.Role.USER, userMessage));
+            }
+            if (assistantMessage != null && !assistantMessage.isBlank()) {
+                written.add(save(character, CharacterConversation.Role.ASSISTANT, assistantMessage));
+            }
+            if (written.isEmpty()) {
+                return null;
+            }
+            return characterRepository.incrementConversationTurns(character.getId(), written.size());
+        });
+
+        if (totalTurns == null) return false;
+
+        // 로딩 중인 항목이면 로딩이 끝난 뒤 반영되고, 이미 로드된 턴은 id로 걸러진다.
+        // 그사이 다른 인스턴스가 턴을 저장했다면 이어 붙일 수 없으므로 윈도우를 버리고 다음 조회 때 다시 읽는다
+        windows.asMap().computeIfPresent(character.getId(),
+                (id, current) -> current.appendWritten(written, totalTurns) ? current : null);
+
+        long before = totalTurns - written.size();
+        return totalTurns / CONVERSATION_WINDOW > before / CONVERSATION_WINDOW;
+    }
+
+    private ConversationTurn save(Character character, CharacterConversation.Role role, String content) {
+        CharacterConversation saved = conversationRepository.save(CharacterConversation.builder()
+                .character(character)
+                .role(role)
+                .content(content.trim())
+                .build());
+        return ConversationTurn.from(saved);
+    }
+
+    private ConversationWindow load(UUID characterId, long persistedTurns) {
+        List<ConversationTurn> recent = conversationRepository
+                .findTop20ByCharacterIdOrderByCreatedAtDesc(characterId).stream()
+                .map(ConversationTurn::from)
+                .toList()
+                .reversed();
+        log.debug("Loaded conversation window for character: {}", characterId);
+        return new ConversationWindow(CONVERSATION_WINDOW, recent, persistedTurns);
+    }
+}
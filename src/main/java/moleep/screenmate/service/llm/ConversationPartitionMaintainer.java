@@ -0,0 +1,132 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.ConversationRetentionProperties;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * character_conversations가 월 단위 파티션 테이블(db/optional/partition_character_conversations.sql)이면
+ * 이번 달부터 partition-months-ahead개월 뒤까지의 파티션을 미리 만든다. 기동 직후와 이후 주기적으로 실행된다.
+ * 그사이 DEFAULT 파티션에 쌓인 해당 월의 행은 새 파티션으로 옮긴 뒤 붙인다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationPartitionMaintainer {
+
+    static final String TABLE = "character_conversations";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationRetentionProperties retentionProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Counter created;
+
+    @PostConstruct
+    void initMetrics() {
+        created = Counter.builder("llm.conversation.partitions.created")
+                .description("Monthly character_conversations partitions created ahead of time")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${llm.conversation-retention.partition-check-interval:6h}")
+    void ensurePartitions() {
+        if (!retentionProperties.isPartitionMaintenance()) {
+            return;
+        }
+        try {
+            int count = createUpcomingPartitions();
+            if (count > 0) {
+                log.info("Created {} character_conversations partitions", count);
+            }
+        } catch (DataAccessException e) {
+            log.error("Failed to create character_conversations partitions", e);
+        }
+    }
+
+    /**
+     * 없는 월 파티션을 만들고 만든 개수를 반환. 파티션 테이블이 아니면 0
+     */
+    int createUpcomingPartitions() {
+        if (!isPartitioned()) {
+            return 0;
+        }
+
+        // 파티션 경계는 스크립트와 같이 DB 세션 시간대 기준의 월 시작일
+        LocalDate month = jdbcTemplate.queryForObject(
+                "SELECT date_trunc('month', CURRENT_TIMESTAMP)::date", LocalDate.class);
+        int count = 0;
+        for (int i = 0; i <= retentionProperties.getPartitionMonthsAhead(); i++) {
+            LocalDate from = month.plusMonths(i);
+            Boolean createdNow = transactionTemplate.execute(status -> createPartition(from));
+            if (Boolean.TRUE.equals(createdNow)) {
+                created.increment();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private boolean isPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject("""
+                SELECT EXISTS (
+                    SELECT 1 FROM pg_partitioned_table p
+                    JOIN pg_class c ON c.oid = p.partrelid
+                    WHERE c.oid = to_regclass(?)
+                )
+                """, Boolean.class, TABLE);
+        return Boolean.TRUE.equals(partitioned);
+    }
+
+    private boolean createPartition(LocalDate from) {
+        // 여러 인스턴스가 동시에 만들지 않도록 트랜잭션 범위 advisory lock
+        jdbcTemplate.queryForObject("SELECT 1 FROM pg_advisory_xact_lock(hashtext(?))", Integer.class,
+                TABLE + "_partitions");
+
+        String partition = TABLE + "_" + from.format(SUFFIX);
+        if (exists(partition)) {
+            return false;
+        }
+
+        LocalDate to = from.plusMonths(1);
+        if (exists(DEFAULT_PARTITION) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM %s WHERE created_at >= ?::date AND created_at < ?::date)"
+                        .formatted(DEFAULT_PARTITION), Boolean.class, from.toString(), to.toString()))) {
+            // DEFAULT 파티션에 해당 범위의 행이 있으면 바로 만들 수 없으므로 옮긴 뒤 붙인다
+            jdbcTemplate.execute("CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS INCLUDING CONSTRAINTS)"
+                    .formatted(partition, TABLE));
+            int moved = jdbcTemplate.update("""
+                    WITH moved AS (
+                        DELETE FROM %s WHERE created_at >= ?::date AND created_at < ?::date RETURNING *
+                    )
+                    INSERT INTO %s SELECT * FROM moved
+                    """.formatted(DEFAULT_PARTITION, partition), from.toString(), to.toString());
+            jdbcTemplate.execute("ALTER TABLE %s ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(TABLE, partition, from, to));
+            log.warn("Moved {} rows from {} into new partition {}", moved, DEFAULT_PARTITION, partition);
+        } else {
+            jdbcTemplate.execute("CREATE TABLE %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')"
+                    .formatted(partition, TABLE, from, to));
+        }
+        return true;
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+}
@@ -0,0 +1,185 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.config.SummaryProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.memory.CharacterQaMemory;
+import moleep.screenmate.domain.memory.CharacterQaMemoryRepository;
+import moleep.screenmate.exception.ServiceUnavailableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 대화 요약을 요청 경로 밖에서 처리하는 백그라운드 워커.
+ * 같은 캐릭터에 대한 중복 요청은 대기 중인 작업 하나로 합쳐진다.
+ * 요약이 저장되면 보관 범위를 벗어난 대화를 정리한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConversationSummarizer {
+
+    public static final String SUMMARY_KEY = "conversation_summary";
+    private static final Set<String> TRANSIENT_ERROR_CODES = Set.of("OPENAI_TIMEOUT", "OPENAI_SERVER_ERROR");
+
+    private final OpenAiClient openAiClient;
+    private final OpenAiProperties openAiProperties;
+    private final SummaryProperties summaryProperties;
+    private final CharacterRepository characterRepository;
+    private final CharacterQaMemoryRepository qaMemoryRepository;
+    private final ConversationHistoryService conversationHistoryService;
+    private final ConversationCompactor conversationCompactor;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<UUID, Long> pending = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private Timer lagTimer;
+    private Counter succeeded;
+    private Counter failed;
+    private Counter rejected;
+    private Counter coalesced;
+
+    @PostConstruct
+    void start() {
+        executor = new ThreadPoolExecutor(
+                summaryProperties.getConcurrency(),
+                summaryProperties.getConcurrency(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(summaryProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("summary-worker-", 0).daemon().factory());
+
+        Gauge.builder("llm.summary.queue.depth", executor, e -> e.getQueue().size())
+                .description("Pending conversation summary jobs")
+                .register(meterRegistry);
+        lagTimer = Timer.builder("llm.summary.lag")
+                .description("Time between summary trigger and job start")
+                .register(meterRegistry);
+        succeeded = meterRegistry.counter("llm.summary.jobs", "result", "success");
+        failed = meterRegistry.counter("llm.summary.jobs", "result", "failure");
+        rejected = meterRegistry.counter("llm.summary.jobs", "result", "rejected");
+        coalesced = meterRegistry.counter("llm.summary.jobs", "result", "coalesced");
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    public void submit(UUID characterId) {
+        long enqueuedAt = System.nanoTime();
+        if (pending.putIfAbsent(characterId, enqueuedAt) != null) {
+            coalesced.increment();
+            return;
+        }
+
+        try {
+            executor.execute(() -> run(characterId, enqueuedAt));
+        } catch (RejectedExecutionException e) {
+            pending.remove(characterId);
+            rejected.increment();
+            log.warn("Summary queue full, dropping summary for character: {}", characterId);
+        }
+    }
+
+    private void run(UUID characterId, long enqueuedAt) {
+        // 실행을 시작한 뒤 들어온 요청은 새 작업으로 다시 등록될 수 있게 먼저 제거
+        pending.remove(characterId);
+        lagTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+
+        try {
+            summarize(characterId);
+            succeeded.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.warn("Failed to summarize conversations for character: {}", characterId, e);
+        }
+    }
+
+    private void summarize(UUID characterId) {
+        Character character = characterRepository.findById(characterId).orElse(null);
+        if (character == null) {
+            return;
+        }
+
+        CharacterQaMemory memory = qaMemoryRepository.findByCharacterId(characterId)
+                .orElseGet(() -> CharacterQaMemory.builder().character(character).build());
+
+        List<ConversationTurn> recent = conversationHistoryService.recentTurns(character);
+
+        String summary = requestSummary(memory.getQaData().getOrDefault(SUMMARY_KEY, ""), recent)
+                .retryWhen(Retry.backoff(summaryProperties.getMaxRetries(), summaryProperties.getInitialBackoff())
+                        .maxBackoff(summaryProperties.getMaxBackoff())
+                        .filter(this::isTransient))
+                .block(summaryProperties.getTimeout());
+        if (summary == null || summary.isBlank()) {
+            return;
+        }
+
+        memory.getQaData().put(SUMMARY_KEY, summary);
+        qaMemoryRepository.save(memory);
+        log.info("Updated conversation summary for character: {}", characterId);
+
+        // 요약에 반영된 뒤에만 오래된 대화를 정리한다
+        conversationCompactor.compact(characterId);
+    }
+
+    /**
+     * 시간 초과, 연결 오류, OpenAI 5xx만 재시도한다.
+     * 4xx와 할당량 부족(OPENAI_QUOTA_EXHAUSTED), 서킷 오픈은 바로 재시도해도 결과가 같으므로 제외한다
+     */
+    private boolean isTransient(Throwable e) {
+        if (e instanceof ServiceUnavailableException unavailable) {
+            return TRANSIENT_ERROR_CODES.contains(unavailable.getErrorCode());
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+
+    private Mono<String> requestSummary(String previousSummary, List<ConversationTurn> recent) {
+        StringBuilder convoBlock = new StringBuilder();
+        for (ConversationTurn turn : recent) {
+            convoBlock.append(turn.speaker()).append(": ").append(turn.content()).append("\n");
+        }
+
+        String system = "너는 대화를 장기 기억용으로 요약하는 도우미야. 사실/선호/관계 변화를 중심으로 간결하게 한국어로 요약해.";
+        String user = "이전 요약:\n" + (previousSummary.isBlank() ? "(없음)" : previousSummary)
+                + "\n\n최근 대화 20개:\n" + convoBlock
+                + "\n\n위 정보를 합쳐 8~12문장으로 압축 요약해줘.";
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", openAiProperties.getModel());
+        requestBody.put("messages", List.of(
+                Map.of("role", "system", "content", system),
+                Map.of("role", "user", "content", user)
+        ));
+        requestBody.put("max_tokens", 600);
+
+        return openAiClient.idempotentChatCompletion(requestBody)
+                .map(completion -> completion.content() == null ? "" : completion.content());
+    }
+}
@@ -0,0 +1,16 @@
+package moleep.screenmate.service.llm;
+
+import moleep.screenmate.domain.conversation.CharacterConversation;
+
+import java.util.UUID;
+
+public record ConversationTurn(UUID id, CharacterConversation.Role role, String content) {
+
+    public static ConversationTurn from(CharacterConversation conversation) {
+        return new ConversationTurn(conversation.getId(), conversation.getRole(), conversation.getContent());
+    }
+
+    public String speaker() {
+        return role == CharacterConversation.Role.USER ? "사용자" : "다마고치";
+    }
+}
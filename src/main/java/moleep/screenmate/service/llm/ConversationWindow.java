@@ -0,0 +1,93 @@
+package moleep.screenmate.service.llm;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 캐릭터별 최근 대화를 담는 고정 크기 링 버퍼.
+ * 어느 시점의 characters.conversation_turns까지 반영했는지 함께 기록해, 다른 인스턴스가 쓴 턴을 놓쳤는지 판단한다.
+ * 모든 접근은 인스턴스 락으로 직렬화된다.
+ */
+class ConversationWindow {
+
+    private static final int BASE_BYTES = 128;
+    private static final int TURN_OVERHEAD_BYTES = 96;
+
+    private final ConversationTurn[] turns;
+    private int head;
+    private int size;
+    private long contentChars;
+    private long persistedTurns;
+
+    ConversationWindow(int capacity, List<ConversationTurn> oldestFirst, long persistedTurns) {
+        this.turns = new ConversationTurn[capacity];
+        this.persistedTurns = persistedTurns;
+        for (ConversationTurn turn : oldestFirst) {
+            push(turn);
+        }
+    }
+
+    /**
+     * 저장된 누적 턴 수가 이 윈도우가 반영한 값보다 크면 다른 곳에서 쓴 턴이 빠져 있다
+     */
+    synchronized boolean isBehind(long persistedTurns) {
+        return this.persistedTurns < persistedTurns;
+    }
+
+    /**
+     * 이 인스턴스가 저장한 턴을 반영한다. 그사이 다른 곳에서 쓴 턴이 있으면(누적 턴 수가 이어지지 않으면)
+     * 반영하지 않고 false를 반환하므로 호출자는 윈도우를 버려야 한다
+     */
+    synchronized boolean appendWritten(List<ConversationTurn> written, long totalTurns) {
+        if (persistedTurns + written.size() != totalTurns) {
+            return false;
+        }
+        written.forEach(this::append);
+        persistedTurns = totalTurns;
+        return true;
+    }
+
+    /**
+     * 턴을 추가한다. 이미 들어 있는 턴(같은 id)은 무시한다.
+     */
+    synchronized void append(ConversationTurn turn) {
+        if (!contains(turn.id())) {
+            push(turn);
+        }
+    }
+
+    synchronized List<ConversationTurn> snapshot() {
+        List<ConversationTurn> result = new ArrayList<>(size);
+        int start = Math.floorMod(head - size, turns.length);
+        for (int i = 0; i < size; i++) {
+            result.add(turns[(start + i) % turns.length]);
+        }
+        return result;
+    }
+
+    synchronized int estimatedBytes() {
+        long bytes = BASE_BYTES + (long) turns.length * 8 + (long) size * TURN_OVERHEAD_BYTES + contentChars * 2;
+        return (int) Math.min(Integer.MAX_VALUE, bytes);
+    }
+
+    private void push(ConversationTurn turn) {
+        if (size == turns.length) {
+            contentChars -= turns[head].content().length();
+        } else {
+            size++;
+        }
+        turns[head] = turn;
+        contentChars += turn.content().length();
+        head = (head + 1) % turns.length;
+    }
+
+    private boolean contains(UUID id) {
+        for (ConversationTurn turn : turns) {
+            if (turn != null && turn.id().equals(id)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 요청 본문에 들어갈 이미지 data URL. 이미지 바이트만 들고 있다가 직렬화할 때
+ * Base64를 조각 단위로 JsonGenerator에 바로 써서 data URL 문자열을 따로 만들지 않는다.
+ */
+public final class ImageDataUrl implements JsonSerializable {
+
+    // 3의 배수라 마지막 조각 외에는 패딩이 생기지 않는다
+    private static final int CHUNK_BYTES = 3 * 1024;
+
+    private final String mediaType;
+    private final byte[] bytes;
+
+    public ImageDataUrl(String mediaType, byte[] bytes) {
+        this.mediaType = mediaType;
+        this.bytes = bytes;
+    }
+
+    /**
+     * 직렬화된 data URL의 길이 (따옴표 제외)
+     */
+    public int encodedLength() {
+        return prefix().length() + 4 * ((bytes.length + 2) / 3);
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        // Base64 문자는 JSON 이스케이프가 필요 없으므로 원시 값으로 이어 쓴다
+        gen.writeRawValue("\"" + prefix());
+
+        Base64.Encoder encoder = Base64.getEncoder();
+        byte[] source = new byte[CHUNK_BYTES];
+        byte[] encoded = new byte[CHUNK_BYTES / 3 * 4];
+        char[] chars = new char[encoded.length];
+        for (int offset = 0; offset < bytes.length; offset += CHUNK_BYTES) {
+            int length = Math.min(CHUNK_BYTES, bytes.length - offset);
+            System.arraycopy(bytes, offset, source, 0, length);
+            int written = length == CHUNK_BYTES
+                    ? encoder.encode(source, encoded)
+                    : encoder.encode(Arrays.copyOf(source, length), encoded);
+            for (int i = 0; i < written; i++) {
+                chars[i] = (char) encoded[i];
+            }
+            gen.writeRaw(chars, 0, written);
+        }
+        gen.writeRaw('"');
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+
+    private String prefix() {
+        return "data:" + mediaType + ";base64,";
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ImageDataUrl other && mediaType.equals(other.mediaType) && Arrays.equals(bytes, other.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * mediaType.hashCode() + Arrays.hashCode(bytes);
+    }
+
+    @Override
+    public String toString() {
+        return prefix() + "...(" + bytes.length + " bytes)";
+    }
+}
@@ -1,33 +1,37 @@
 package moleep.screenmate.service.llm;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.config.OpenAiProperties;
 import moleep.screenmate.config.RateLimitConfig;
 import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.character.CharacterRepository;
-import moleep.screenmate.domain.conversation.CharacterConversation;
-import moleep.screenmate.domain.conversation.CharacterConversationRepository;
+import moleep.screenmate.domain.character.IntimacyUpdate;
 import moleep.screenmate.domain.memory.CharacterQaMemory;
 import moleep.screenmate.domain.memory.CharacterQaMemoryRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.llm.LlmGenerateRequest;
 import moleep.screenmate.dto.llm.LlmGenerateResponse;
+import moleep.screenmate.dto.llm.LlmStreamDelta;
 import moleep.screenmate.exception.BadRequestException;
+import moleep.screenmate.exception.BaseException;
 import moleep.screenmate.exception.RateLimitExceededException;
-import moleep.screenmate.validation.ActionWhitelistValidator;
 import moleep.screenmate.validation.OwnershipValidator;
-import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.web.reactive.function.client.WebClient;
-import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Slf4j
 @Service
@@ -37,151 +41,201 @@ public class LlmProxyService {
     private static final long MAX_IMAGE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final Set<String> ALLOWED_IMAGE_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
     private static final int INTIMACY_DAILY_CAP = 30;
-    private static final int CONVERSATION_WINDOW = 20;
-    private static final String SUMMARY_KEY = "conversation_summary";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final String STREAM_EVENT_DELTA = "delta";
+    private static final String STREAM_EVENT_DONE = "done";
+    private static final String STREAM_EVENT_ERROR = "error";
 
-    private final WebClient openAiWebClient;
+    private final OpenAiClient openAiClient;
     private final OpenAiProperties openAiProperties;
     private final RateLimitConfig rateLimitConfig;
     private final OwnershipValidator ownershipValidator;
-    private final ActionWhitelistValidator actionWhitelistValidator;
     private final CharacterQaMemoryRepository qaMemoryRepository;
     private final CharacterRepository characterRepository;
-    private final CharacterConversationRepository conversationRepository;
-    private final ObjectMapper objectMapper;
+    private final ConversationHistoryService conversationHistoryService;
+    private final ConversationSummarizer conversationSummarizer;
+    private final ScreenshotProcessor screenshotProcessor;
+    private final ScreenContextCache screenContextCache;
+    private final CharacterLanes characterLanes;
+    private final SystemPromptBuilder systemPromptBuilder;
+    private final CharacterReplySchema characterReplySchema;
+    private final OpenAiResponseDecoder responseDecoder;
+    private final MeterRegistry meterRegistry;
+    private final Scheduler jdbcScheduler;
+
+    private Counter promptTokensUsed;
+    private Counter completionTokensUsed;
+    private Counter streamPersistFailures;
+
+    @PostConstruct
+    void initMetrics() {
+        promptTokensUsed = meterRegistry.counter("llm.openai.tokens", "type", "prompt");
+        completionTokensUsed = meterRegistry.counter("llm.openai.tokens", "type", "completion");
+        streamPersistFailures = meterRegistry.counter("llm.stream.persist.failure");
+    }
 
-    public LlmGenerateResponse generate(User user, LlmGenerateRequest request, MultipartFile screenshot) {
-        if (!rateLimitConfig.tryConsume(user.getId())) {
+    /**
+     * idempotencyKey가 있으면 같은 키로 실행 중인 요청과 결과를 공유한다 (클라이언트 재시도로 턴이 두 번 저장되지 않게).
+     * 키가 없으면 내용이 같아도 별개의 요청으로 처리한다.
+     */
+    public Mono<LlmGenerateResponse> generate(UserPrincipal user, LlmGenerateRequest request, MultipartFile screenshot,
+                                              String idempotencyKey) {
+        if (!rateLimitConfig.tryConsume(user.id())) {
             throw new RateLimitExceededException("Rate limit exceeded. Please try again later.");
         }
 
-        Character character = ownershipValidator.validateAndGetCharacter(request.getCharacterId(), user);
+        // 멀티파트 파일은 요청 스레드에서 미리 읽어 둔다 (비동기 구간에서 임시 파일이 정리될 수 있음)
+        ScreenInput screen = resolveScreen(request.getCharacterId(), screenshot);
+
+        // 같은 캐릭터의 요청은 레인에서 순서대로 실행해 대화 기록/친밀도를 오래된 상태로 덮어쓰지 않게 한다
+        Supplier<Mono<LlmGenerateResponse>> work = () -> characterLanes.acquire(request.getCharacterId())
+                .flatMap(lease -> Mono.fromCallable(() -> loadContext(user, request.getCharacterId()))
+                        .subscribeOn(jdbcScheduler)
+                        .flatMap(context -> openAiClient.chatCompletion(buildRequestBody(context, request.getUserMessage(), screen))
+                                .map(this::decodeCompletion)
+                                .doOnNext(response -> rememberScreen(context.character().getId(), screen, response))
+                                .flatMap(response -> completeGeneration(context.character(), request.getUserMessage(), response)))
+                        .doFinally(signal -> lease.release()));
+
+        if (!StringUtils.hasText(idempotencyKey)) {
+            return work.get();
+        }
+        if (idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new BadRequestException("INVALID_IDEMPOTENCY_KEY", "Idempotency-Key is too long");
+        }
+        return characterLanes.singleFlight(new IdempotencyKey(user.id(), request.getCharacterId(), idempotencyKey), work);
+    }
 
-        CharacterQaMemory qaMemory = qaMemoryRepository.findByCharacterId(character.getId()).orElse(null);
+    /**
+     * message 텍스트는 생성되는 대로 delta 이벤트로 흘려보내고, 나머지 필드는 마지막 done 이벤트로 보낸다.
+     * 친밀도 반영과 대화 저장은 done 이벤트 이후에 실행되고, 저장이 끝나야 캐릭터 레인이 풀린다.
+     */
+    public Flux<ServerSentEvent<Object>> generateStream(UserPrincipal user, LlmGenerateRequest request, MultipartFile screenshot) {
+        if (!rateLimitConfig.tryConsume(user.id())) {
+            throw new RateLimitExceededException("Rate limit exceeded. Please try again later.");
+        }
+
+        ScreenInput screen = resolveScreen(request.getCharacterId(), screenshot);
+
+        return characterLanes.acquire(request.getCharacterId())
+                .flatMapMany(lease -> streamWithinLane(user, request, screen, lease))
+                .onErrorResume(e -> Mono.just(ServerSentEvent.<Object>builder(toStreamError(e))
+                        .event(STREAM_EVENT_ERROR)
+                        .build()));
+    }
 
-        List<CharacterConversation> recentConversations = getRecentConversations(character.getId());
+    private Flux<ServerSentEvent<Object>> streamWithinLane(UserPrincipal user, LlmGenerateRequest request, ScreenInput screen,
+                                                           CharacterLanes.Lease lease) {
+        AtomicBoolean persistStarted = new AtomicBoolean();
+
+        return Mono.fromCallable(() -> loadContext(user, request.getCharacterId()))
+                .subscribeOn(jdbcScheduler)
+                .flatMapMany(context -> {
+                    StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+                    StringBuilder content = new StringBuilder();
+
+                    Flux<ServerSentEvent<Object>> deltas = openAiClient
+                            .streamChatCompletion(buildRequestBody(context, request.getUserMessage(), screen))
+                            .doOnNext(content::append)
+                            .map(extractor::feed)
+                            .filter(text -> !text.isEmpty())
+                            .map(text -> ServerSentEvent.<Object>builder(new LlmStreamDelta(text))
+                                    .event(STREAM_EVENT_DELTA)
+                                    .build());
+
+                    Mono<LlmGenerateResponse> parsed = Mono.fromCallable(() -> responseDecoder.decodeContent(content.toString()))
+                            .doOnNext(response -> rememberScreen(context.character().getId(), screen, response))
+                            .cache();
+
+                    Mono<ServerSentEvent<Object>> done = parsed.map(response -> ServerSentEvent.<Object>builder(response)
+                            .event(STREAM_EVENT_DONE)
+                            .build());
 
-        String systemPrompt = buildSystemPrompt(character, qaMemory, recentConversations);
-        List<Map<String, Object>> messages = buildMessages(systemPrompt, request.getUserMessage(), screenshot);
+                    Mono<ServerSentEvent<Object>> persist = parsed
+                            .doOnNext(response -> {
+                                persistStarted.set(true);
+                                persistInBackground(context.character(), request.getUserMessage(), response, lease);
+                            })
+                            .then(Mono.empty());
+
+                    return deltas.concatWith(done).concatWith(persist);
+                })
+                .doFinally(signal -> {
+                    // 저장 단계로 넘어가지 못하고 끝났다면 여기서 레인을 푼다
+                    if (!persistStarted.get()) {
+                        lease.release();
+                    }
+                });
+    }
+
+    /**
+     * 클라이언트가 done 직후 연결을 끊어도 저장이 취소되지 않도록 스트림과 분리해 jdbcScheduler에서 실행한다.
+     * 결과를 기다리는 쪽이 없으므로 실패는 로그와 llm.stream.persist.failure 지표로만 남긴다
+     */
+    private void persistInBackground(Character character, String userMessage, LlmGenerateResponse response,
+                                     CharacterLanes.Lease lease) {
+        completeGeneration(character, userMessage, response)
+                .subscribeOn(jdbcScheduler)
+                .doFinally(signal -> lease.release())
+                .subscribe(
+                        saved -> log.debug("Persisted streamed conversation for character: {}", character.getId()),
+                        e -> {
+                            streamPersistFailures.increment();
+                            log.error("Failed to persist streamed conversation for character: {}", character.getId(), e);
+                        });
+    }
+
+    private Map<String, Object> buildRequestBody(GenerationContext context, String userMessage, ScreenInput screen) {
+        String systemPrompt = systemPromptBuilder.build(context.character(), context.qaMemory(), context.recentTurns(),
+                screen.cachedDescription());
+        List<Map<String, Object>> messages = buildMessages(systemPrompt, userMessage, screen.imageUrl());
 
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", openAiProperties.getModel());
         requestBody.put("messages", messages);
         requestBody.put("max_tokens", 3000);
-        requestBody.put("response_format", Map.of("type", "json_object"));
-
-        log.debug("Sending request to OpenAI for character: {}", character.getId());
-
-        String responseJson;
-        try {
-            responseJson = openAiWebClient
-                    .post()
-                    .uri("/v1/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-        } catch (WebClientResponseException e) {
-            log.error("OpenAI API error: status={}, body={}", e.getStatusCode(), e.getResponseBodyAsString());
-            throw new BadRequestException("OPENAI_API_ERROR",
-                    "OpenAI API error: " + e.getStatusCode().value());
-        }
+        requestBody.put("response_format", characterReplySchema.responseFormat());
 
-        LlmGenerateResponse response = parseAndValidateResponse(responseJson);
-        IntimacyResult intimacyResult = applyIntimacyDelta(character, response.getIntimacyDelta());
-
-        persistConversationAndMaybeSummarize(character, request.getUserMessage(), response.getMessage());
-        characterRepository.save(character);
-
-        return LlmGenerateResponse.builder()
-                .message(response.getMessage())
-                .actions(response.getActions())
-                .emotion(response.getEmotion())
-                .intimacyDelta(response.getIntimacyDelta())
-                .intimacyScore(intimacyResult.score())
-                .intimacyDeltaApplied(intimacyResult.applied())
-                .intimacyDailyCount(intimacyResult.dailyCount())
-                .build();
+        log.debug("Sending request to OpenAI for character: {}", context.character().getId());
+        return requestBody;
     }
 
-    private String buildSystemPrompt(Character character, CharacterQaMemory qaMemory, List<CharacterConversation> recentConversations) {
-        StringBuilder prompt = new StringBuilder();
-        prompt.append("너는 사용자의 데스크톱에 사는 다마고치야.\n");
-        prompt.append("사용자가 하는 일을 알아차리고, 진짜 살아있는 펫처럼 상호작용해.\n");
-        prompt.append("반말로 말하고, 장난스럽고 눈치 빠르며 약간 간섭하는 느낌을 유지해.\n");
-        prompt.append("답변은 짧고 다양해야 하고, 센스 있게 농담도 섞어.\n");
-        prompt.append("스크린샷이 있으면 화면 내용을 보고 코멘트하고 사용자와 연결해.\n");
-        prompt.append("항상 지금 실시간으로 대화하는 듯이 반응해.\n\n");
-
-        prompt.append("캐릭터:\n");
-        prompt.append("- 이름: ").append(character.getName()).append("\n");
-        prompt.append("- 종족: ").append(character.getSpecies()).append("\n");
-        if (character.getPersonality() != null) {
-            prompt.append("- 성격: ").append(character.getPersonality()).append("\n");
-        }
-
-        prompt.append("\n현재 상태:\n");
-        prompt.append("- 행복도: ").append(character.getHappiness()).append("/100\n");
-        prompt.append("- 배고픔: ").append(character.getHunger()).append("/100\n");
-        prompt.append("- 건강: ").append(character.getHealth()).append("/100\n");
-        prompt.append("- 성장 단계: ").append(character.getStageIndex()).append("\n");
-        prompt.append("- 유저 친밀도: ").append(String.format(Locale.US, "%.1f", character.getIntimacyScore())).append("/100\n");
-
-        String summary = qaMemory != null ? qaMemory.getQaData().get(SUMMARY_KEY) : null;
-        if (summary != null && !summary.isBlank()) {
-            prompt.append("\n대화 요약(오래된 기억):\n");
-            prompt.append(summary).append("\n");
+    private Map<String, String> toStreamError(Throwable e) {
+        if (e instanceof BaseException baseException) {
+            return Map.of("code", baseException.getErrorCode(), "message", baseException.getMessage());
         }
+        log.error("LLM stream failed", e);
+        return Map.of("code", "LLM_STREAM_FAILED", "message", "Failed to generate response");
+    }
 
-        if (!recentConversations.isEmpty()) {
-            prompt.append("\n최근 대화 ").append(CONVERSATION_WINDOW).append("개:\n");
-            for (CharacterConversation convo : recentConversations) {
-                String role = convo.getRole() == CharacterConversation.Role.USER ? "사용자" : "다마고치";
-                prompt.append("- ").append(role).append(": ").append(convo.getContent()).append("\n");
-            }
-        }
+    private GenerationContext loadContext(UserPrincipal user, UUID characterId) {
+        Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
+        CharacterQaMemory qaMemory = qaMemoryRepository.findByCharacterId(character.getId()).orElse(null);
+        List<ConversationTurn> recentTurns = conversationHistoryService.recentTurns(character);
+        return new GenerationContext(character, qaMemory, recentTurns);
+    }
 
-        prompt.append("\n성장 단계 페르소나 규칙:\n");
-        prompt.append("- 1단계(유아): 순수하고 호기심 많고, 감정 표현이 직설적.\n");
-        prompt.append("- 2단계(사춘기 청소년): 약간 까칠하고 반항적일 수 있지만 관심은 원함.\n");
-        prompt.append("- 3단계(성인): 더 안정적이고 능청스럽고, 상황 파악이 빠름.\n");
-
-        prompt.append("\n친밀도 말투 규칙:\n");
-        prompt.append("- 친밀도 낮음(0~30): 형식적이고 거리감 있는 반말. 과한 사적 질문 금지.\n");
-        prompt.append("- 친밀도 중간(30~70): 가벼운 장난과 관심 표현 가능.\n");
-        prompt.append("- 친밀도 높음(70~100): 친근하고 사적인 말, 내부 농담/애착 표현 가능.\n");
-
-        prompt.append("\n장소/이벤트 규칙:\n");
-        prompt.append("- 은행 페이데이 조건: 성장 단계 3 이상 && 친밀도 90 이상.\n");
-        prompt.append("- 사용자가 '요즘 돈이 없다/거지/돈 부족/텅장' 류의 말을 하면, 위 조건을 만족할 때 actions에 PAYDAY를 포함해.\n");
-        prompt.append("- 조건을 만족하지 않으면 PAYDAY를 절대 쓰지 마.\n");
-
-        prompt.append("\n감정 규칙:\n");
-        prompt.append("- 행복도가 낮으면: 투덜거리거나 심술을 내고, 관심을 요구해.\n");
-        prompt.append("- 행복도가 높으면: 적당히 밝고 기분 좋은 톤을 유지해.\n");
-        prompt.append("- 배고픔/건강 상태가 말투와 요청에 반영돼야 해.\n");
-
-        if (qaMemory != null && !qaMemory.getQaData().isEmpty()) {
-            prompt.append("\n학습된 사용자 정보 (자연스럽게 활용, 나열하지 말 것):\n");
-            qaMemory.getQaData().forEach((key, value) ->
-                    prompt.append("- ").append(key).append(": ").append(value).append("\n"));
-        }
+    private Mono<LlmGenerateResponse> completeGeneration(Character character, String userMessage, LlmGenerateResponse response) {
+        return Mono.fromCallable(() -> {
+                    IntimacyResult intimacyResult = applyIntimacyDelta(character, response.getIntimacyDelta());
+                    if (conversationHistoryService.appendTurns(character, userMessage, response.getMessage())) {
+                        conversationSummarizer.submit(character.getId());
+                    }
 
-        prompt.append("\n출력은 JSON만:\n");
-        prompt.append("- message: 한국어 반말로 답변\n");
-        prompt.append("- actions: 액션 배열 [{type, params}]\n");
-        prompt.append("- emotion: 현재 감정\n");
-        prompt.append("- intimacyDelta: 이번 대화로 친밀도가 어떻게 변했는지 숫자로 제안 (-0.3, 0, 0.1 중 하나만)\n");
-        prompt.append("  * 더 친해졌다고 느끼면 0.1\n");
-        prompt.append("  * 무례하거나 불쾌하면 -0.3\n");
-        prompt.append("  * 애매하면 0\n");
-        prompt.append("\n허용 액션 타입: APPEAR_EDGE, PLAY_ANIM, SPEAK, MOVE, EMOTE, SLEEP, PAYDAY\n");
-
-        return prompt.toString();
+                    return LlmGenerateResponse.builder()
+                            .message(response.getMessage())
+                            .actions(response.getActions())
+                            .emotion(response.getEmotion())
+                            .intimacyDelta(response.getIntimacyDelta())
+                            .intimacyScore(intimacyResult.score())
+                            .intimacyDeltaApplied(intimacyResult.applied())
+                            .intimacyDailyCount(intimacyResult.dailyCount())
+                            .build();
+                })
+                .subscribeOn(jdbcScheduler);
     }
 
-    private List<Map<String, Object>> buildMessages(String systemPrompt, String userMessage, MultipartFile screenshot) {
+    private List<Map<String, Object>> buildMessages(String systemPrompt, String userMessage, ImageDataUrl screenshot) {
         List<Map<String, Object>> messages = new ArrayList<>();
 
         messages.add(Map.of("role", "system", "content", systemPrompt));
@@ -192,27 +246,14 @@ public class LlmProxyService {
             userContent.add(Map.of("type", "text", "text", userMessage));
         }
 
-        // 스크린샷이 실제로 존재하고 내용이 있는 경우에만 처리
-        if (isValidScreenshot(screenshot)) {
-            validateImage(screenshot);
-            try {
-                String base64Image = Base64.getEncoder().encodeToString(screenshot.getBytes());
-                String mediaType = screenshot.getContentType() != null ? screenshot.getContentType() : "image/png";
-
-                userContent.add(Map.of(
-                        "type", "image_url",
-                        "image_url", Map.of(
-                                "url", "data:" + mediaType + ";base64," + base64Image,
-                                "detail", "low"
-                        )
-                ));
-                log.debug("Screenshot included in request, size: {} bytes", screenshot.getSize());
-            } catch (Exception e) {
-                log.error("Failed to process screenshot", e);
-                throw new BadRequestException("SCREENSHOT_PROCESSING_FAILED", "Failed to process screenshot");
-            }
-        } else {
-            log.debug("No screenshot provided, sending text-only request");
+        if (screenshot != null) {
+            userContent.add(Map.of(
+                    "type", "image_url",
+                    "image_url", Map.of(
+                            "url", screenshot,
+                            "detail", "low"
+                    )
+            ));
         }
 
         if (userContent.isEmpty()) {
@@ -224,6 +265,48 @@ public class LlmProxyService {
         return messages;
     }
 
+    /**
+     * 직전 화면과 거의 같으면 이미지 대신 캐시된 화면 설명을 사용한다
+     */
+    private ScreenInput resolveScreen(UUID characterId, MultipartFile screenshot) {
+        ProcessedScreenshot processed = encodeScreenshot(screenshot);
+        if (processed == null) {
+            return ScreenInput.NONE;
+        }
+
+        return screenContextCache.reusableDescription(characterId, processed.hash())
+                .map(description -> {
+                    log.debug("Screen unchanged for character: {}, reusing cached description", characterId);
+                    return new ScreenInput(null, null, description);
+                })
+                .orElseGet(() -> new ScreenInput(processed.image(), processed.hash(), null));
+    }
+
+    private void rememberScreen(UUID characterId, ScreenInput screen, LlmGenerateResponse response) {
+        String description = response.getScreenDescription();
+        if (screen.hash() != null && description != null && !description.isBlank()) {
+            screenContextCache.remember(characterId, screen.hash(), description);
+        }
+    }
+
+    private ProcessedScreenshot encodeScreenshot(MultipartFile screenshot) {
+        // 스크린샷이 실제로 존재하고 내용이 있는 경우에만 처리
+        if (!isValidScreenshot(screenshot)) {
+            log.debug("No screenshot provided, sending text-only request");
+            return null;
+        }
+
+        validateImage(screenshot);
+        try {
+            return screenshotProcessor.process(screenshot);
+        } catch (BaseException e) {
+            throw e;
+        } catch (Exception e) {
+            log.error("Failed to process screenshot", e);
+            throw new BadRequestException("SCREENSHOT_PROCESSING_FAILED", "Failed to process screenshot");
+        }
+    }
+
     /**
      * 스크린샷이 유효한지 확인 (null, empty, 0 bytes 모두 체크)
      */
@@ -257,183 +340,26 @@ public class LlmProxyService {
         }
     }
 
-    private LlmGenerateResponse parseAndValidateResponse(String responseJson) {
-        try {
-            JsonNode root = objectMapper.readTree(responseJson);
-            JsonNode choices = root.path("choices");
-
-            if (choices.isEmpty() || !choices.isArray()) {
-                throw new BadRequestException("INVALID_LLM_RESPONSE", "No choices in LLM response");
-            }
-
-            String content = choices.get(0).path("message").path("content").asText();
-            JsonNode contentJson = objectMapper.readTree(content);
-
-            String message = contentJson.path("message").asText(null);
-            String emotion = contentJson.path("emotion").asText(null);
-
-            List<LlmGenerateResponse.Action> actions = new ArrayList<>();
-            JsonNode actionsNode = contentJson.path("actions");
-            if (actionsNode.isArray()) {
-                for (JsonNode actionNode : actionsNode) {
-                    String type = actionNode.path("type").asText(null);
-                    Map<String, Object> params = new HashMap<>();
-                    JsonNode paramsNode = actionNode.path("params");
-                    if (paramsNode.isObject()) {
-                        paramsNode.fields().forEachRemaining(entry ->
-                                params.put(entry.getKey(), convertJsonNode(entry.getValue())));
-                    }
-                    actions.add(LlmGenerateResponse.Action.builder()
-                            .type(type)
-                            .params(params)
-                            .build());
-                }
-            }
-
-            List<LlmGenerateResponse.Action> filteredActions = actionWhitelistValidator.filterActions(actions);
-
-            Double intimacyDelta = null;
-            JsonNode intimacyNode = contentJson.path("intimacyDelta");
-            if (intimacyNode.isNumber()) {
-                intimacyDelta = intimacyNode.asDouble();
-            } else if (intimacyNode.isTextual()) {
-                try {
-                    intimacyDelta = Double.parseDouble(intimacyNode.asText());
-                } catch (NumberFormatException ignored) {
-                    intimacyDelta = null;
-                }
-            }
-
-            return LlmGenerateResponse.builder()
-                    .message(message)
-                    .actions(filteredActions)
-                    .emotion(emotion)
-                    .intimacyDelta(intimacyDelta)
-                    .build();
-
-        } catch (JsonProcessingException e) {
-            log.error("Failed to parse LLM response", e);
-            throw new BadRequestException("INVALID_LLM_RESPONSE", "Failed to parse LLM response");
-        }
-    }
-
-    private Object convertJsonNode(JsonNode node) {
-        if (node.isTextual()) return node.asText();
-        if (node.isNumber()) return node.numberValue();
-        if (node.isBoolean()) return node.asBoolean();
-        if (node.isNull()) return null;
-        return node.toString();
-    }
-
-    private List<CharacterConversation> getRecentConversations(UUID characterId) {
-        List<CharacterConversation> recentDesc = conversationRepository.findTop20ByCharacterIdOrderByCreatedAtDesc(characterId);
-        Collections.reverse(recentDesc);
-        return recentDesc;
-    }
-
-    private void persistConversationAndMaybeSummarize(Character character, String userMessage, String assistantMessage) {
-        boolean wrote = false;
-        if (userMessage != null && !userMessage.isBlank()) {
-            conversationRepository.save(CharacterConversation.builder()
-                    .character(character)
-                    .role(CharacterConversation.Role.USER)
-                    .content(userMessage.trim())
-                    .build());
-            wrote = true;
-        }
-        if (assistantMessage != null && !assistantMessage.isBlank()) {
-            conversationRepository.save(CharacterConversation.builder()
-                    .character(character)
-                    .role(CharacterConversation.Role.ASSISTANT)
-                    .content(assistantMessage.trim())
-                    .build());
-            wrote = true;
-        }
-
-        if (!wrote) return;
-
-        long count = conversationRepository.countByCharacterId(character.getId());
-        if (count % CONVERSATION_WINDOW == 0) {
-            summarizeConversation(character);
-        }
-    }
-
-    private void summarizeConversation(Character character) {
-        CharacterQaMemory memory = qaMemoryRepository.findByCharacterId(character.getId())
-                .orElseGet(() -> CharacterQaMemory.builder().character(character).build());
-
-        String previousSummary = memory.getQaData().getOrDefault(SUMMARY_KEY, "");
-        List<CharacterConversation> recent = getRecentConversations(character.getId());
-
-        String summary = requestSummary(previousSummary, recent);
-        if (summary == null || summary.isBlank()) {
-            return;
-        }
-
-        memory.getQaData().put(SUMMARY_KEY, summary);
-        qaMemoryRepository.save(memory);
-        log.info("Updated conversation summary for character: {}", character.getId());
-    }
-
-    private String requestSummary(String previousSummary, List<CharacterConversation> recent) {
-        try {
-            StringBuilder convoBlock = new StringBuilder();
-            for (CharacterConversation convo : recent) {
-                String role = convo.getRole() == CharacterConversation.Role.USER ? "사용자" : "다마고치";
-                convoBlock.append(role).append(": ").append(convo.getContent()).append("\n");
-            }
-
-            String system = "너는 대화를 장기 기억용으로 요약하는 도우미야. 사실/선호/관계 변화를 중심으로 간결하게 한국어로 요약해.";
-            String user = "이전 요약:\n" + (previousSummary.isBlank() ? "(없음)" : previousSummary)
-                    + "\n\n최근 대화 20개:\n" + convoBlock
-                    + "\n\n위 정보를 합쳐 8~12문장으로 압축 요약해줘.";
-
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", openAiProperties.getModel());
-            requestBody.put("messages", List.of(
-                    Map.of("role", "system", "content", system),
-                    Map.of("role", "user", "content", user)
-            ));
-            requestBody.put("max_tokens", 600);
-
-            String responseJson = openAiWebClient
-                    .post()
-                    .uri("/v1/chat/completions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .bodyValue(requestBody)
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .block();
-
-            JsonNode root = objectMapper.readTree(responseJson);
-            return root.path("choices").get(0).path("message").path("content").asText("");
-        } catch (Exception e) {
-            log.warn("Failed to summarize conversations", e);
-            return null;
-        }
+    private LlmGenerateResponse decodeCompletion(OpenAiResponseDecoder.Completion completion) {
+        promptTokensUsed.increment(completion.usage().promptTokens());
+        completionTokensUsed.increment(completion.usage().completionTokens());
+        return responseDecoder.decodeContent(completion.content());
     }
 
+    /**
+     * 일일 횟수 초기화, 상한 확인, 점수 반영을 한 번의 조건부 UPDATE로 처리한다.
+     * 변화량이 없으면 쓰지 않고 읽어 둔 값으로 응답한다 (날짜가 바뀌었으면 횟수는 0)
+     */
     private IntimacyResult applyIntimacyDelta(Character character, Double rawDelta) {
         LocalDate today = LocalDate.now();
-        if (!today.equals(character.getIntimacyDailyDate())) {
-            character.setIntimacyDailyDate(today);
-            character.setIntimacyDailyCount(0);
-        }
-
         if (rawDelta == null || Math.abs(rawDelta) < 1e-9) {
-            return new IntimacyResult(character.getIntimacyScore(), false, character.getIntimacyDailyCount());
+            int dailyCount = today.equals(character.getIntimacyDailyDate()) ? character.getIntimacyDailyCount() : 0;
+            return new IntimacyResult(character.getIntimacyScore(), false, dailyCount);
         }
 
-        if (character.getIntimacyDailyCount() >= INTIMACY_DAILY_CAP) {
-            return new IntimacyResult(character.getIntimacyScore(), false, character.getIntimacyDailyCount());
-        }
-
-        double delta = clampDelta(rawDelta);
-        double nextScore = clampScore(character.getIntimacyScore() + delta);
-        character.setIntimacyScore(nextScore);
-        character.setIntimacyDailyCount(character.getIntimacyDailyCount() + 1);
-
-        return new IntimacyResult(nextScore, true, character.getIntimacyDailyCount());
+        IntimacyUpdate update = characterRepository.applyIntimacyDelta(
+                character.getId(), clampDelta(rawDelta), today, INTIMACY_DAILY_CAP);
+        return new IntimacyResult(update.getIntimacyScore(), update.getApplied(), update.getIntimacyDailyCount());
     }
 
     private double clampDelta(double delta) {
@@ -447,10 +373,23 @@ public class LlmProxyService {
         return 0.0;
     }
 
-    private double clampScore(double score) {
-        return Math.max(0.0, Math.min(100.0, score));
+    private record IntimacyResult(Double score, boolean applied, int dailyCount) {
     }
 
-    private record IntimacyResult(Double score, boolean applied, int dailyCount) {
+    /**
+     * 이번 요청에 첨부할 이미지(imageUrl) 또는 재사용할 직전 화면 설명(cachedDescription)
+     */
+    private record ScreenInput(ImageDataUrl imageUrl, Long hash, String cachedDescription) {
+        static final ScreenInput NONE = new ScreenInput(null, null, null);
+    }
+
+    /**
+     * 클라이언트가 보낸 재시도 식별 키. 사용자/캐릭터 범위로 묶어 다른 사용자의 키와 섞이지 않게 한다
+     */
+    private record IdempotencyKey(UUID userId, UUID characterId, String key) {
+    }
+
+    private record GenerationContext(Character character, CharacterQaMemory qaMemory,
+                                     List<ConversationTurn> recentTurns) {
     }
 }
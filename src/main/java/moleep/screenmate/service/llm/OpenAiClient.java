@@ -0,0 +1,252 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.exception.BadRequestException;
+import moleep.screenmate.exception.ServiceUnavailableException;
+import moleep.screenmate.service.llm.OpenAiQuotaGovernor.Priority;
+import moleep.screenmate.service.llm.OpenAiQuotaGovernor.Reservation;
+import moleep.screenmate.service.llm.OpenAiResponseDecoder.Completion;
+import moleep.screenmate.service.llm.OpenAiResponseDecoder.Usage;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OpenAI Chat Completions 호출을 감싸는 논블로킹 클라이언트.
+ * 모든 호출에 지연 예산과 서킷 브레이커가 적용되고, 전송 전에 조직 할당량(TPM/RPM)을 예약한다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenAiClient {
+
+    private static final String CHAT_COMPLETIONS_URI = "/v1/chat/completions";
+    private static final String MODELS_URI = "/v1/models";
+    private static final String STREAM_DONE = "[DONE]";
+    private static final ParameterizedTypeReference<ServerSentEvent<String>> SSE_TYPE =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient openAiWebClient;
+    private final OpenAiProperties openAiProperties;
+    private final CircuitBreaker openAiCircuitBreaker;
+    private final ObjectMapper objectMapper;
+    private final OpenAiQuotaGovernor quotaGovernor;
+    private final OpenAiResponseDecoder responseDecoder;
+
+    /**
+     * 시작 시 가벼운 요청으로 커넥션을 미리 열어 첫 사용자 요청이 TLS 핸드셰이크 비용을 내지 않게 한다
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        int connections = openAiProperties.getWarmUpConnections();
+        if (connections <= 0) {
+            return;
+        }
+
+        Flux.range(0, connections)
+                .flatMap(i -> openAiWebClient.get()
+                        .uri(MODELS_URI)
+                        .retrieve()
+                        .toBodilessEntity()
+                        .onErrorResume(e -> {
+                            log.warn("OpenAI connection warm-up failed: {}", e.getMessage());
+                            return Mono.empty();
+                        }), connections)
+                .count()
+                .subscribe(warmed -> log.info("Warmed {} OpenAI connection(s)", warmed));
+    }
+
+    /**
+     * 대화용 호출. 지연 예산(request-timeout)과 서킷 브레이커를 적용한다
+     */
+    public Mono<Completion> chatCompletion(Map<String, Object> requestBody) {
+        return governedCall(requestBody, Priority.INTERACTIVE)
+                .onErrorMap(this::toClientException);
+    }
+
+    /**
+     * 멱등한 백그라운드 호출(요약) 전용. 할당량은 낮은 우선순위로 예약하고,
+     * hedge-delay 안에 응답이 없으면 같은 요청을 한 번 더 보내 먼저 온 응답을 쓴다
+     */
+    public Mono<Completion> idempotentChatCompletion(Map<String, Object> requestBody) {
+        if (!openAiProperties.isHedgeEnabled()) {
+            return governedCall(requestBody, Priority.BACKGROUND)
+                    .onErrorMap(this::toClientException);
+        }
+
+        Mono<Completion> hedge = Mono.delay(openAiProperties.getHedgeDelay())
+                .doOnNext(tick -> log.debug("Sending hedged OpenAI request"))
+                .then(governedCall(requestBody, Priority.BACKGROUND));
+        return Mono.firstWithValue(governedCall(requestBody, Priority.BACKGROUND), hedge)
+                .onErrorMap(e -> toClientException(firstHedgeError(e)));
+    }
+
+    /**
+     * 두 요청이 모두 실패하면 firstWithValue가 원인들을 묶어 던지므로 첫 번째 원인을 꺼낸다
+     */
+    private Throwable firstHedgeError(Throwable e) {
+        if (e.getCause() == null) {
+            return e;
+        }
+        List<Throwable> causes = Exceptions.unwrapMultiple(e.getCause());
+        return causes.isEmpty() ? e : causes.get(0);
+    }
+
+    /**
+     * 할당량을 예약한 뒤 호출하고, 끝나는 방식(응답/오류/취소)과 상관없이 예약을 한 번 정산한다.
+     * 응답 본문은 여기서 한 번만 디코딩해 정산용 usage와 호출자에게 넘길 content를 함께 얻는다
+     */
+    private Mono<Completion> governedCall(Map<String, Object> requestBody, Priority priority) {
+        return quotaGovernor.reserve(requestBody, priority)
+                .flatMap(reservation -> {
+                    AtomicReference<Usage> usage = new AtomicReference<>();
+                    AtomicBoolean notSent = new AtomicBoolean();
+                    AtomicBoolean answered = new AtomicBoolean();
+                    return guardedCall(requestBody)
+                            .doOnNext(responseJson -> answered.set(true))
+                            .map(responseDecoder::decodeCompletion)
+                            .doOnNext(completion -> usage.set(completion.usage()))
+                            .doOnError(CallNotPermittedException.class, e -> notSent.set(true))
+                            // 응답을 받았으면 디코딩에 실패해도 토큰은 쓴 것이므로 완료로 정산한다
+                            .doFinally(signal -> quotaGovernor.finish(reservation, !notSent.get(),
+                                    answered.get() ? SignalType.ON_COMPLETE : signal, usage.get()));
+                });
+    }
+
+    private Mono<String> guardedCall(Map<String, Object> requestBody) {
+        return openAiWebClient
+                .post()
+                .uri(CHAT_COMPLETIONS_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(serialize(requestBody), byte[].class)
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(openAiProperties.getRequestTimeout())
+                .transformDeferred(CircuitBreakerOperator.of(openAiCircuitBreaker));
+    }
+
+    /**
+     * stream=true로 호출하고 choices[0].delta.content 조각만 순서대로 흘려보낸다
+     */
+    public Flux<String> streamChatCompletion(Map<String, Object> requestBody) {
+        Map<String, Object> streamingBody = new HashMap<>(requestBody);
+        streamingBody.put("stream", true);
+        // 마지막 청크로 usage를 받아 할당량을 정산한다
+        streamingBody.put("stream_options", Map.of("include_usage", true));
+
+        return quotaGovernor.reserve(streamingBody, Priority.INTERACTIVE)
+                .flatMapMany(reservation -> stream(streamingBody, reservation))
+                .onErrorMap(this::toClientException);
+    }
+
+    private Flux<String> stream(Map<String, Object> streamingBody, Reservation reservation) {
+        AtomicReference<Usage> usage = new AtomicReference<>();
+        AtomicBoolean notSent = new AtomicBoolean();
+
+        return openAiWebClient
+                .post()
+                .uri(CHAT_COMPLETIONS_URI)
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .body(serialize(streamingBody), byte[].class)
+                .retrieve()
+                .bodyToFlux(SSE_TYPE)
+                // 첫 조각과 이후 조각 사이 간격에 각각 지연 예산을 둔다
+                .timeout(Mono.delay(openAiProperties.getStreamFirstTokenTimeout()),
+                        event -> Mono.delay(openAiProperties.getStreamIdleTimeout()))
+                .<String>handle((event, sink) -> {
+                    if (event.data() != null) {
+                        sink.next(event.data());
+                    }
+                })
+                .takeWhile(data -> !STREAM_DONE.equals(data))
+                .<String>handle((chunk, sink) -> {
+                    String delta = readChunk(chunk, usage);
+                    if (!delta.isEmpty()) {
+                        sink.next(delta);
+                    }
+                })
+                .transformDeferred(CircuitBreakerOperator.of(openAiCircuitBreaker))
+                .doOnError(CallNotPermittedException.class, e -> notSent.set(true))
+                // 클라이언트가 스트림을 끊어도(취소) 예약이 정산되도록 doFinally에서 처리한다
+                .doFinally(signal -> quotaGovernor.finish(reservation, !notSent.get(), signal, usage.get()));
+    }
+
+    /**
+     * 요청 본문을 애플리케이션 ObjectMapper로 직접 직렬화한다.
+     * 스크린샷(ImageDataUrl)은 이때 Base64로 본문 버퍼에 바로 쓰여 data URL 문자열을 따로 만들지 않는다
+     */
+    private Mono<byte[]> serialize(Map<String, Object> requestBody) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(requestBody));
+    }
+
+    private Throwable toClientException(Throwable e) {
+        if (e instanceof WebClientResponseException response && response.getStatusCode().is5xxServerError()) {
+            log.warn("OpenAI server error: status={}", response.getStatusCode());
+            return new ServiceUnavailableException("OPENAI_SERVER_ERROR",
+                    "AI service is temporarily unavailable. Please try again later.");
+        }
+        if (e instanceof WebClientResponseException response) {
+            log.error("OpenAI API error: status={}, body={}", response.getStatusCode(), response.getResponseBodyAsString());
+            return new BadRequestException("OPENAI_API_ERROR",
+                    "OpenAI API error: " + response.getStatusCode().value());
+        }
+        if (e instanceof CallNotPermittedException) {
+            return new ServiceUnavailableException("OPENAI_UNAVAILABLE",
+                    "AI service is temporarily unavailable. Please try again later.");
+        }
+        if (e instanceof TimeoutException) {
+            log.warn("OpenAI call exceeded latency budget");
+            return new ServiceUnavailableException("OPENAI_TIMEOUT", "AI service took too long to respond");
+        }
+        return e;
+    }
+
+    /**
+     * choices[0].delta.content를 반환하고, usage가 실린 청크(마지막 청크)면 따로 기록한다
+     */
+    private String readChunk(String chunkJson, AtomicReference<Usage> usage) {
+        try {
+            JsonNode root = objectMapper.readTree(chunkJson);
+            JsonNode usageNode = root.path("usage");
+            if (usageNode.isObject()) {
+                usage.set(new Usage(usageNode.path("prompt_tokens").asInt(),
+                        usageNode.path("completion_tokens").asInt(),
+                        usageNode.path("total_tokens").asInt()));
+            }
+            JsonNode choices = root.path("choices");
+            if (!choices.isArray() || choices.isEmpty()) {
+                return "";
+            }
+            return choices.get(0).path("delta").path("content").asText("");
+        } catch (JsonProcessingException e) {
+            log.warn("Skipping malformed OpenAI stream chunk");
+            return "";
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package moleep.screenmate.service.llm;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.EstimationProbe;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.exception.ServiceUnavailableException;
+import moleep.screenmate.security.ratelimit.BucketStore;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 조직 단위 OpenAI TPM/RPM 할당량을 모든 호출이 공유하는 버킷으로 관리한다.
+ * 호출 전에 프롬프트 + max_tokens만큼 미리 예약하고, 응답의 usage로 차이를 정산한다.
+ * 대화용 예약은 공유 버킷에서 몫(quota-lease-fraction) 단위로 빌려 온 인스턴스 로컬 잔량에서 떼어 가므로
+ * 공유 버킷이 DB에 있어도 호출마다 같은 행을 잠그지 않는다. 쓰지 않은 잔량은 주기적으로 돌려준다.
+ * 여유가 없으면 우선순위별 대기 한도까지 기다리고, 그래도 부족하면 503으로 거절한다.
+ * 백그라운드 호출(요약)은 대화용 여유분을 남겨 둘 수 있을 때만 예약된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OpenAiQuotaGovernor {
+
+    private static final String TOKENS_KEY = "openai:tpm";
+    private static final String REQUESTS_KEY = "openai:rpm";
+
+    // Chat Completions 메시지 형식 오버헤드
+    private static final int TOKENS_PER_MESSAGE = 4;
+    private static final int REPLY_PRIMING_TOKENS = 3;
+    // detail=low 이미지는 크기와 상관없이 고정 비용, high는 1024x1024 기준 타일 4장으로 추정
+    private static final int LOW_DETAIL_IMAGE_TOKENS = 85;
+    private static final int HIGH_DETAIL_IMAGE_TOKENS = 765;
+    private static final int DEFAULT_COMPLETION_TOKENS = 1000;
+
+    public enum Priority {
+        INTERACTIVE, BACKGROUND
+    }
+
+    public record Reservation(long tokens) {
+        static final Reservation NONE = new Reservation(0);
+    }
+
+    private final BucketStore bucketStore;
+    private final OpenAiProperties openAiProperties;
+    private final TokenCounter tokenCounter;
+    private final Scheduler jdbcScheduler;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final Map<Priority, Timer> waitTimers = new EnumMap<>(Priority.class);
+    private final Map<Priority, Counter> shed = new EnumMap<>(Priority.class);
+
+    private LeasedBucket tokens;
+    private LeasedBucket requests;
+    private long tokenReserve;
+    private long requestReserve;
+    private DistributionSummary reconciled;
+
+    @PostConstruct
+    void init() {
+        long tokensPerMinute = openAiProperties.getQuotaTokensPerMinute();
+        long requestsPerMinute = openAiProperties.getQuotaRequestsPerMinute();
+        double leaseFraction = openAiProperties.getQuotaLeaseFraction();
+        tokens = new LeasedBucket(bucketStore.resolvePinned(TOKENS_KEY, perMinute(tokensPerMinute)),
+                (long) (tokensPerMinute * leaseFraction),
+                meterRegistry.counter("llm.quota.leases", "bucket", "tokens"));
+        requests = new LeasedBucket(bucketStore.resolvePinned(REQUESTS_KEY, perMinute(requestsPerMinute)),
+                (long) (requestsPerMinute * leaseFraction),
+                meterRegistry.counter("llm.quota.leases", "bucket", "requests"));
+        tokenReserve = (long) (tokensPerMinute * openAiProperties.getQuotaBackgroundReserve());
+        requestReserve = (long) (requestsPerMinute * openAiProperties.getQuotaBackgroundReserve());
+
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase(Locale.ROOT);
+            waitTimers.put(priority, Timer.builder("llm.quota.wait")
+                    .description("Time spent waiting for OpenAI quota")
+                    .tag("priority", tag)
+                    .register(meterRegistry));
+            shed.put(priority, meterRegistry.counter("llm.quota.shed", "priority", tag));
+        }
+        reconciled = DistributionSummary.builder("llm.quota.reconciled")
+                .description("Reserved minus actual OpenAI tokens per call")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        Gauge.builder("llm.quota.waiting", waiting, AtomicInteger::get)
+                .description("Calls waiting for OpenAI quota")
+                .register(meterRegistry);
+    }
+
+    private static BucketConfiguration perMinute(long limit) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(limit)
+                        .refillGreedy(limit, Duration.ofMinutes(1))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 요청 한 건과 예상 토큰을 예약한다. 대기 한도 안에 확보하지 못하면 OPENAI_QUOTA_EXHAUSTED(503)
+     */
+    public Mono<Reservation> reserve(Map<String, Object> requestBody, Priority priority) {
+        if (!openAiProperties.isQuotaEnabled()) {
+            return Mono.just(Reservation.NONE);
+        }
+
+        // 버킷 저장소가 DB일 수 있으므로 블로킹 호출용 스케줄러에서 확인한다
+        return Mono.defer(() -> {
+                    long estimated = Math.min(estimate(requestBody), openAiProperties.getQuotaTokensPerMinute());
+                    long start = System.nanoTime();
+                    long deadline = start + maxWait(priority).toNanos();
+                    return attempt(estimated, priority, deadline, false)
+                            .doOnNext(reservation -> waitTimers.get(priority)
+                                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+                })
+                .subscribeOn(jdbcScheduler)
+                // 확보 직후 구독이 취소되면 전달되지 못한 예약을 돌려준다
+                .doOnDiscard(Reservation.class, reservation -> finish(reservation, false, SignalType.CANCEL, null));
+    }
+
+    /**
+     * 호출이 끝난 방식에 따라 예약을 정산한다. 호출마다 doFinally에서 정확히 한 번 부른다.
+     * 공유 버킷(DB일 수 있음)을 건드릴 수 있으므로 블로킹 호출용 스케줄러에서 실행한다.
+     *
+     * @param sent   요청이 OpenAI로 전송됐는지 (서킷 오픈이면 false)
+     * @param signal 호출 Publisher의 종료 신호
+     * @param usage  응답의 usage (모르면 null)
+     */
+    public void finish(Reservation reservation, boolean sent, SignalType signal, OpenAiResponseDecoder.Usage usage) {
+        if (reservation.tokens() == 0) {
+            return;
+        }
+
+        Mono.fromRunnable(() -> {
+                    if (!sent) {
+                        release(reservation);
+                    } else if (signal == SignalType.ON_COMPLETE) {
+                        settle(reservation, usage);
+                    } else {
+                        // 응답을 받지 못한 호출(오류/취소). 요청 수는 쓴 것으로 두고 토큰 예약만 돌려준다
+                        tokens.giveBack(reservation.tokens());
+                    }
+                })
+                .subscribeOn(jdbcScheduler)
+                .subscribe(null, e -> log.warn("Failed to settle OpenAI quota reservation: {}", e.getMessage()));
+    }
+
+    /**
+     * 실제 usage로 예약분을 정산한다. usage를 모르면 예약분을 그대로 사용한 것으로 둔다
+     */
+    private void settle(Reservation reservation, OpenAiResponseDecoder.Usage usage) {
+        if (usage == null || usage.totalTokens() == 0) {
+            return;
+        }
+
+        long difference = reservation.tokens() - usage.totalTokens();
+        reconciled.record(difference);
+        if (difference > 0) {
+            tokens.giveBack(difference);
+        } else if (difference < 0) {
+            tokens.overdraw(-difference);
+        }
+    }
+
+    /**
+     * 요청이 전송되지 않았을 때 예약 전체를 돌려준다
+     */
+    private void release(Reservation reservation) {
+        tokens.giveBack(reservation.tokens());
+        requests.giveBack(1);
+    }
+
+    /**
+     * 로컬에 남은 몫을 공유 버킷에 돌려줘 다른 인스턴스가 쓸 수 있게 한다
+     */
+    @Scheduled(fixedDelayString = "${openai.quota-lease-flush-interval:5s}")
+    @PreDestroy
+    void returnUnusedLeases() {
+        if (tokens == null) {
+            return;
+        }
+        tokens.flush();
+        requests.flush();
+    }
+
+    private Mono<Reservation> attempt(long estimated, Priority priority, long deadline, boolean queued) {
+        long waitNanos = tryAcquire(estimated, priority);
+        if (waitNanos == 0) {
+            return Mono.just(new Reservation(estimated));
+        }
+        if (System.nanoTime() + waitNanos > deadline) {
+            return shed(priority);
+        }
+
+        Mono<Reservation> retry = Mono.delay(Duration.ofNanos(waitNanos), jdbcScheduler)
+                .then(Mono.defer(() -> attempt(estimated, priority, deadline, true)));
+        if (queued) {
+            return retry;
+        }
+        if (waiting.incrementAndGet() > openAiProperties.getQuotaMaxWaiting()) {
+            waiting.decrementAndGet();
+            return shed(priority);
+        }
+        return retry.doFinally(signal -> waiting.decrementAndGet());
+    }
+
+    /**
+     * 두 버킷에서 모두 확보하면 0, 아니면 다시 시도하기까지 기다릴 시간(ns)을 반환.
+     * 백그라운드 호출은 대화용 여유분을 공유 버킷 기준으로 확인해야 하므로 로컬 잔량을 쓰지 않는다
+     */
+    private long tryAcquire(long estimated, Priority priority) {
+        boolean background = priority == Priority.BACKGROUND;
+        long requestWait = background ? requests.takeShared(1, requestReserve) : requests.take(1);
+        if (requestWait > 0) {
+            return requestWait;
+        }
+        long tokenWait = background ? tokens.takeShared(estimated, tokenReserve) : tokens.take(estimated);
+        if (tokenWait > 0) {
+            requests.giveBack(1);
+            return tokenWait;
+        }
+        return 0;
+    }
+
+    private Mono<Reservation> shed(Priority priority) {
+        shed.get(priority).increment();
+        log.warn("OpenAI quota exhausted, shedding {} call", priority);
+        return Mono.error(new ServiceUnavailableException("OPENAI_QUOTA_EXHAUSTED",
+                "AI service is busy. Please try again shortly."));
+    }
+
+    private Duration maxWait(Priority priority) {
+        return priority == Priority.BACKGROUND
+                ? openAiProperties.getQuotaBackgroundMaxWait()
+                : openAiProperties.getQuotaInteractiveMaxWait();
+    }
+
+    /**
+     * OpenAI와 같은 방식으로 프롬프트 토큰에 max_tokens를 더해 추정한다
+     */
+    long estimate(Map<String, Object> requestBody) {
+        long total = REPLY_PRIMING_TOKENS;
+        if (requestBody.get("messages") instanceof List<?> messages) {
+            for (Object message : messages) {
+                total += TOKENS_PER_MESSAGE;
+                if (message instanceof Map<?, ?> fields) {
+                    total += contentTokens(fields.get("content"));
+                }
+            }
+        }
+        return total + (requestBody.get("max_tokens") instanceof Number maxTokens
+                ? maxTokens.longValue()
+                : DEFAULT_COMPLETION_TOKENS);
+    }
+
+    private long contentTokens(Object content) {
+        if (content instanceof String text) {
+            return tokenCounter.count(text);
+        }
+        long total = 0;
+        if (content instanceof List<?> parts) {
+            for (Object part : parts) {
+                if (!(part instanceof Map<?, ?> fields)) {
+                    continue;
+                }
+                if (fields.get("text") instanceof String text) {
+                    total += tokenCounter.count(text);
+                } else if (fields.get("image_url") instanceof Map<?, ?> image) {
+                    total += "low".equals(image.get("detail")) ? LOW_DETAIL_IMAGE_TOKENS : HIGH_DETAIL_IMAGE_TOKENS;
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 공유 버킷에서 몫 단위로 빌려 온 토큰을 인스턴스 로컬에 두고 나눠 쓰는 버킷.
+     * 돌려받은 토큰도 로컬 잔량에 쌓였다가 flush 때 공유 버킷으로 돌아간다
+     */
+    private static final class LeasedBucket {
+
+        private final Bucket shared;
+        private final long leaseSize;
+        private final Counter leases;
+        private long available;
+
+        private LeasedBucket(Bucket shared, long leaseSize, Counter leases) {
+            this.shared = shared;
+            this.leaseSize = Math.max(leaseSize, 1);
+            this.leases = leases;
+        }
+
+        /**
+         * 로컬 잔량에서 떼어 가고, 모자라면 몫 하나(또는 모자란 만큼)를 공유 버킷에서 빌려 온다.
+         * 빌려 오는 동안 다른 호출은 기다리므로 공유 버킷은 인스턴스당 한 번에 하나의 요청만 받는다
+         */
+        synchronized long take(long amount) {
+            if (available >= amount) {
+                available -= amount;
+                return 0;
+            }
+
+            long missing = amount - available;
+            long lease = Math.max(missing, leaseSize);
+            long wait = takeShared(lease, 0);
+            if (wait > 0 && lease > missing) {
+                lease = missing;
+                wait = takeShared(lease, 0);
+            }
+            if (wait > 0) {
+                return wait;
+            }
+            leases.increment();
+            available += lease - amount;
+            return 0;
+        }
+
+        /**
+         * 로컬 잔량을 거치지 않고 공유 버킷에서 바로 가져온다. keepAvailable만큼은 남아 있어야 한다
+         */
+        long takeShared(long amount, long keepAvailable) {
+            if (keepAvailable > 0) {
+                EstimationProbe estimation = shared.estimateAbilityToConsume(amount + keepAvailable);
+                if (!estimation.canBeConsumed()) {
+                    return Math.max(estimation.getNanosToWaitForRefill(), 1);
+                }
+            }
+            ConsumptionProbe probe = shared.tryConsumeAndReturnRemaining(amount);
+            return probe.isConsumed() ? 0 : Math.max(probe.getNanosToWaitForRefill(), 1);
+        }
+
+        synchronized void giveBack(long amount) {
+            available += amount;
+        }
+
+        /**
+         * 예약보다 많이 쓴 만큼을 로컬 잔량에서 먼저 빼고, 나머지는 공유 버킷에서 한도와 상관없이 뺀다
+         */
+        void overdraw(long amount) {
+            long remaining;
+            synchronized (this) {
+                long local = Math.min(available, amount);
+                available -= local;
+                remaining = amount - local;
+            }
+            if (remaining > 0) {
+                shared.consumeIgnoringRateLimits(remaining);
+            }
+        }
+
+        void flush() {
+            long unused;
+            synchronized (this) {
+                unused = available;
+                available = 0;
+            }
+            if (unused > 0) {
+                shared.addTokens(unused);
+            }
+        }
+    }
+}
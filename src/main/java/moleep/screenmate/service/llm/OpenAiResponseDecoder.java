@@ -0,0 +1,287 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.dto.llm.LlmGenerateResponse;
+import moleep.screenmate.exception.BadRequestException;
+import moleep.screenmate.validation.ActionWhitelistValidator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * OpenAI Chat Completions 응답을 JsonParser로 한 번 훑어 content와 usage를 읽고,
+ * content 안의 JSON을 트리 없이 바로 LlmGenerateResponse로 디코딩한다.
+ * content는 strict 스키마로 생성되므로 타입을 보정하지 않으며, 실패율은 llm.response.parse로 집계한다.
+ */
+@Slf4j
+@Component
+public class OpenAiResponseDecoder {
+
+    private static final int MAX_SCREEN_DESCRIPTION_LENGTH = 300;
+
+    private final JsonFactory jsonFactory;
+    private final ActionWhitelistValidator actionWhitelistValidator;
+    private final Counter parsed;
+    private final Counter parseFailures;
+
+    public OpenAiResponseDecoder(ObjectMapper objectMapper, ActionWhitelistValidator actionWhitelistValidator,
+                                 MeterRegistry meterRegistry) {
+        this.jsonFactory = objectMapper.getFactory();
+        this.actionWhitelistValidator = actionWhitelistValidator;
+        this.parsed = meterRegistry.counter("llm.response.parse", "result", "success");
+        this.parseFailures = meterRegistry.counter("llm.response.parse", "result", "failure");
+    }
+
+    public record Usage(int promptTokens, int completionTokens, int totalTokens) {
+        static final Usage NONE = new Usage(0, 0, 0);
+    }
+
+    /**
+     * 응답 본문에서 읽은 choices[0].message.content(가공 전)와 usage
+     */
+    public record Completion(String content, Usage usage) {
+    }
+
+    /**
+     * Chat Completions 응답 본문을 한 번 훑어 content와 usage를 읽는다. 할당량 정산과 응답 처리가 이 결과를 함께 쓴다
+     */
+    public Completion decodeCompletion(String responseJson) {
+        try (JsonParser parser = jsonFactory.createParser(responseJson)) {
+            expectObject(parser);
+
+            String content = null;
+            boolean sawChoice = false;
+            Usage usage = Usage.NONE;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("choices".equals(field) && value == JsonToken.START_ARRAY) {
+                    JsonToken first = parser.nextToken();
+                    if (first == JsonToken.END_ARRAY) {
+                        continue;
+                    }
+                    if (first == JsonToken.START_OBJECT) {
+                        sawChoice = true;
+                        content = readChoiceContent(parser);
+                    } else {
+                        parser.skipChildren();
+                    }
+                    skipRestOfArray(parser);
+                } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                    usage = readUsage(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+
+            if (!sawChoice) {
+                parseFailures.increment();
+                throw new BadRequestException("INVALID_LLM_RESPONSE", "No choices in LLM response");
+            }
+            return new Completion(content, usage);
+        } catch (IOException e) {
+            parseFailures.increment();
+            log.error("Failed to parse LLM response", e);
+            throw new BadRequestException("INVALID_LLM_RESPONSE", "Failed to parse LLM response");
+        }
+    }
+
+    /**
+     * 모델이 생성한 content(JSON 문자열)를 디코딩. 스트리밍 응답을 모은 결과에도 사용된다.
+     * 응답 스키마(CharacterReplySchema)를 전제로 타입이 다르면 보정하지 않고 실패로 처리한다
+     */
+    public LlmGenerateResponse decodeContent(String content) {
+        if (content == null || content.isBlank()) {
+            return LlmGenerateResponse.builder().actions(List.of()).build();
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(content)) {
+            expectObject(parser);
+
+            LlmGenerateResponse.LlmGenerateResponseBuilder builder = LlmGenerateResponse.builder();
+            List<LlmGenerateResponse.Action> actions = new ArrayList<>();
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "message" -> builder.message(readString(parser, value));
+                    case "emotion" -> builder.emotion(readString(parser, value));
+                    case "screenDescription" -> builder.screenDescription(truncate(readNullableString(parser, value)));
+                    case "intimacyDelta" -> builder.intimacyDelta(readNumber(parser, value));
+                    case "actions" -> readActions(parser, value, actions);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            parsed.increment();
+            return builder.actions(actions).build();
+        } catch (IOException e) {
+            parseFailures.increment();
+            log.error("Failed to parse LLM response content", e);
+            throw new BadRequestException("INVALID_LLM_RESPONSE", "Failed to parse LLM response");
+        }
+    }
+
+    private String readChoiceContent(JsonParser parser) throws IOException {
+        String content = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("message".equals(field) && value == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String messageField = parser.currentName();
+                    JsonToken messageValue = parser.nextToken();
+                    if ("content".equals(messageField)) {
+                        content = readNullableString(parser, messageValue);
+                    } else if ("refusal".equals(messageField) && messageValue == JsonToken.VALUE_STRING) {
+                        // 스키마를 따르는 대신 거절한 경우
+                        throw new JsonParseException(parser, "LLM refused: " + parser.getText());
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return content;
+    }
+
+    private Usage readUsage(JsonParser parser) throws IOException {
+        int prompt = 0;
+        int completion = 0;
+        int total = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value != JsonToken.VALUE_NUMBER_INT) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case "prompt_tokens" -> prompt = parser.getIntValue();
+                case "completion_tokens" -> completion = parser.getIntValue();
+                case "total_tokens" -> total = parser.getIntValue();
+                default -> {
+                    // 세부 토큰 항목은 사용하지 않음
+                }
+            }
+        }
+        return new Usage(prompt, completion, total);
+    }
+
+    private void readActions(JsonParser parser, JsonToken value, List<LlmGenerateResponse.Action> actions)
+            throws IOException {
+        expect(parser, value, JsonToken.START_ARRAY);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(parser, token, JsonToken.START_OBJECT);
+
+            String type = null;
+            Map<String, Object> params = new HashMap<>();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "type" -> type = readString(parser, fieldValue);
+                    case "params" -> readParams(parser, fieldValue, params);
+                    default -> parser.skipChildren();
+                }
+            }
+
+            // 스키마가 enum으로 제한하지만 화이트리스트는 서버에서 한 번 더 확인한다
+            if (actionWhitelistValidator.isAllowed(type)) {
+                actions.add(LlmGenerateResponse.Action.builder()
+                        .type(type)
+                        .params(params)
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * [{key, value}] 배열을 맵으로 모은다
+     */
+    private void readParams(JsonParser parser, JsonToken value, Map<String, Object> params) throws IOException {
+        expect(parser, value, JsonToken.START_ARRAY);
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            expect(parser, token, JsonToken.START_OBJECT);
+
+            String key = null;
+            Object paramValue = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken fieldValue = parser.nextToken();
+                switch (field) {
+                    case "key" -> key = readString(parser, fieldValue);
+                    case "value" -> paramValue = switch (fieldValue) {
+                        case VALUE_STRING -> parser.getText();
+                        case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> parser.getNumberValue();
+                        case VALUE_TRUE, VALUE_FALSE -> parser.getBooleanValue();
+                        default -> throw new JsonParseException(parser, "Unexpected param value " + fieldValue);
+                    };
+                    default -> parser.skipChildren();
+                }
+            }
+            if (key != null) {
+                params.put(key, paramValue);
+            }
+        }
+    }
+
+    private Double readNumber(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT && value != JsonToken.VALUE_NUMBER_FLOAT) {
+            throw new JsonParseException(parser, "Expected number but was " + value);
+        }
+        return parser.getDoubleValue();
+    }
+
+    private String readString(JsonParser parser, JsonToken value) throws IOException {
+        expect(parser, value, JsonToken.VALUE_STRING);
+        return parser.getText();
+    }
+
+    private String readNullableString(JsonParser parser, JsonToken value) throws IOException {
+        return value == JsonToken.VALUE_NULL ? null : readString(parser, value);
+    }
+
+    private void expect(JsonParser parser, JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new JsonParseException(parser, "Expected " + expected + " but was " + actual);
+        }
+    }
+
+    private String truncate(String text) {
+        if (text != null && text.length() > MAX_SCREEN_DESCRIPTION_LENGTH) {
+            return text.substring(0, MAX_SCREEN_DESCRIPTION_LENGTH);
+        }
+        return text;
+    }
+
+    private void skipRestOfArray(JsonParser parser) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            parser.skipChildren();
+        }
+    }
+
+    private void expectObject(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected JSON object");
+        }
+    }
+}
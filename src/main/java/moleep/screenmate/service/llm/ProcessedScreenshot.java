@@ -0,0 +1,7 @@
+package moleep.screenmate.service.llm;
+
+/**
+ * OpenAI로 보낼 스크린샷 이미지와 화면 변화 비교용 dHash (디코딩 실패 시 null)
+ */
+public record ProcessedScreenshot(ImageDataUrl image, Long hash) {
+}
@@ -0,0 +1,64 @@
+package moleep.screenmate.service.llm;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import moleep.screenmate.config.ScreenshotProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * 캐릭터별로 마지막으로 OpenAI에 보낸 화면의 dHash와 모델이 남긴 화면 설명을 보관한다.
+ * 새 스크린샷이 충분히 비슷하면 이미지 대신 이 설명을 프롬프트에 재사용한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScreenContextCache {
+
+    private final ScreenshotProperties screenshotProperties;
+    private final MeterRegistry meterRegistry;
+
+    private Cache<UUID, ScreenState> screens;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void initCache() {
+        screens = Caffeine.newBuilder()
+                .maximumSize(screenshotProperties.getDedupeCacheSize())
+                .expireAfterWrite(screenshotProperties.getDedupeTtl())
+                .build();
+        hits = meterRegistry.counter("llm.screenshot.dedupe", "result", "hit");
+        misses = meterRegistry.counter("llm.screenshot.dedupe", "result", "miss");
+    }
+
+    /**
+     * 직전 화면과 해밍 거리가 임계값 이하이면 캐시된 설명을 반환
+     */
+    public Optional<String> reusableDescription(UUID characterId, Long hash) {
+        if (!screenshotProperties.isDedupeEnabled() || hash == null) {
+            return Optional.empty();
+        }
+
+        ScreenState previous = screens.getIfPresent(characterId);
+        if (previous != null
+                && Long.bitCount(previous.hash() ^ hash) <= screenshotProperties.getDedupeMaxDistance()) {
+            hits.increment();
+            return Optional.of(previous.description());
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public void remember(UUID characterId, long hash, String description) {
+        screens.put(characterId, new ScreenState(hash, description));
+    }
+
+    private record ScreenState(long hash, String description) {
+    }
+}
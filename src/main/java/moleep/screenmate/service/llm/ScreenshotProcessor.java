@@ -0,0 +1,207 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.ScreenshotProperties;
+import moleep.screenmate.exception.BadRequestException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+/**
+ * 스크린샷을 low detail 비전 입력 해상도(기본 512px)로 줄이고 JPEG으로 재인코딩한다.
+ * 화면 변화 비교용 dHash도 함께 계산한다.
+ * 헤더의 크기가 픽셀 상한을 넘으면 디코딩하지 않고 거절하며, 큰 이미지는 서브샘플링하며 읽는다.
+ * 디코딩에 실패하면 원본 바이트를 그대로 보낸다. 모든 처리는 메모리에서만 이뤄진다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScreenshotProcessor {
+
+    private static final String JPEG_MEDIA_TYPE = "image/jpeg";
+    private static final int HASH_WIDTH = 8;
+    private static final int HASH_HEIGHT = 8;
+
+    private final ScreenshotProperties screenshotProperties;
+    private final MeterRegistry meterRegistry;
+
+    private DistributionSummary originalBytes;
+    private DistributionSummary encodedBytes;
+
+    @PostConstruct
+    void initMetrics() {
+        // 디스크 임시 파일 캐시를 쓰지 않도록 강제
+        ImageIO.setUseCache(false);
+        originalBytes = DistributionSummary.builder("llm.screenshot.bytes")
+                .tag("stage", "original")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        encodedBytes = DistributionSummary.builder("llm.screenshot.bytes")
+                .tag("stage", "encoded")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public ProcessedScreenshot process(MultipartFile screenshot) throws IOException {
+        originalBytes.record(screenshot.getSize());
+
+        BufferedImage decoded = decode(screenshot);
+        if (decoded == null) {
+            log.debug("Screenshot could not be decoded, sending original bytes");
+            return new ProcessedScreenshot(encodeOriginal(screenshot), null);
+        }
+
+        BufferedImage resized = resize(decoded, screenshotProperties.getMaxDimension());
+        ImageDataUrl image = encodeJpeg(resized);
+        log.debug("Screenshot resized {}x{} -> {}x{}, {} -> {} bytes", decoded.getWidth(), decoded.getHeight(),
+                resized.getWidth(), resized.getHeight(), screenshot.getSize(), image.encodedLength());
+        return new ProcessedScreenshot(image, differenceHash(resized));
+    }
+
+    /**
+     * 헤더에서 크기를 먼저 읽어 픽셀 상한을 넘으면 거절한다 (압축 폭탄 방지).
+     * 긴 변이 축소 목표의 2배 이상이면 서브샘플링으로 필요한 만큼만 디코딩한다
+     */
+    private BufferedImage decode(MultipartFile screenshot) throws IOException {
+        try (InputStream in = screenshot.getInputStream();
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageIn != null ? ImageIO.getImageReaders(imageIn) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > screenshotProperties.getMaxPixels()) {
+                    throw new BadRequestException("SCREENSHOT_TOO_LARGE",
+                            String.format("Screenshot dimensions %dx%d exceed the allowed size", width, height));
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (screenshotProperties.getMaxDimension() * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            log.debug("Failed to decode screenshot: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 긴 변이 maxDimension 이하가 되도록 축소. 큰 배율은 절반씩 나눠 줄여 품질을 유지한다
+     */
+    private BufferedImage resize(BufferedImage source, int maxDimension) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+
+        BufferedImage current = source;
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            current = draw(current, width, height);
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    /**
+     * 9x8 그레이스케일로 줄인 뒤 가로로 인접한 픽셀 밝기를 비교한 64비트 dHash
+     */
+    private long differenceHash(BufferedImage image) {
+        BufferedImage small = new BufferedImage(HASH_WIDTH + 1, HASH_HEIGHT, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = small.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, HASH_WIDTH + 1, HASH_HEIGHT, null);
+        } finally {
+            g.dispose();
+        }
+
+        Raster raster = small.getRaster();
+        long hash = 0L;
+        for (int y = 0; y < HASH_HEIGHT; y++) {
+            for (int x = 0; x < HASH_WIDTH; x++) {
+                hash <<= 1;
+                if (raster.getSample(x, y, 0) > raster.getSample(x + 1, y, 0)) {
+                    hash |= 1L;
+                }
+            }
+        }
+        return hash;
+    }
+
+    private BufferedImage draw(BufferedImage source, int width, int height) {
+        // JPEG은 알파를 지원하지 않으므로 흰 배경 위에 RGB로 그린다
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * JPEG 바이트만 만들어 둔다. Base64 인코딩은 요청 본문을 직렬화할 때 ImageDataUrl이 바로 써 넣는다
+     */
+    private ImageDataUrl encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+
+        try (ImageOutputStream out = new MemoryCacheImageOutputStream(buffer)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(screenshotProperties.getJpegQuality());
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+
+        ImageDataUrl dataUrl = new ImageDataUrl(JPEG_MEDIA_TYPE, buffer.toByteArray());
+        encodedBytes.record(dataUrl.encodedLength());
+        return dataUrl;
+    }
+
+    private ImageDataUrl encodeOriginal(MultipartFile screenshot) throws IOException {
+        String mediaType = screenshot.getContentType() != null ? screenshot.getContentType() : "image/png";
+        ImageDataUrl dataUrl = new ImageDataUrl(mediaType, screenshot.getBytes());
+        encodedBytes.record(dataUrl.encodedLength());
+        return dataUrl;
+    }
+}
@@ -0,0 +1,125 @@
+package moleep.screenmate.service.llm;
+
+/**
+ * 스트리밍으로 도착하는 JSON 응답 조각에서 최상위 "message" 문자열 값만 점진적으로 디코딩한다.
+ * 한 스트림 전용이며 스레드 안전하지 않다.
+ */
+class StreamingMessageExtractor {
+
+    private static final String MESSAGE_KEY = "message";
+
+    private int depth;
+    private boolean inString;
+    private boolean escape;
+    private boolean expectKey;
+    private boolean readingKey;
+    private boolean streamingMessage;
+    private boolean messageComplete;
+    private String lastKey;
+    private final StringBuilder keyBuffer = new StringBuilder();
+    private final StringBuilder unicodeBuffer = new StringBuilder();
+    private int unicodeRemaining;
+
+    /**
+     * 새 조각을 입력하고, 이번 조각으로 새로 확정된 message 텍스트를 반환 (없으면 빈 문자열)
+     */
+    String feed(String chunk) {
+        if (messageComplete) {
+            return "";
+        }
+
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < chunk.length() && !messageComplete; i++) {
+            char c = chunk.charAt(i);
+            if (inString) {
+                consumeStringChar(c, out);
+            } else {
+                consumeStructuralChar(c);
+            }
+        }
+        return out.toString();
+    }
+
+    private void consumeStructuralChar(char c) {
+        switch (c) {
+            case '{', '[' -> {
+                depth++;
+                expectKey = c == '{' && depth == 1;
+                // 최상위 키의 값이 객체/배열이면 그 키는 더 이상 message 후보가 아니다
+                lastKey = null;
+            }
+            case '}', ']' -> depth--;
+            case ',' -> {
+                expectKey = depth == 1;
+                // 숫자/불리언/null 값이 끝난 경우에도 이전 키를 남기지 않는다
+                lastKey = null;
+            }
+            case ':' -> expectKey = false;
+            case '"' -> {
+                inString = true;
+                readingKey = depth == 1 && expectKey;
+                streamingMessage = depth == 1 && !readingKey && MESSAGE_KEY.equals(lastKey);
+                keyBuffer.setLength(0);
+            }
+            default -> {
+                // 숫자/불리언/공백은 무시
+            }
+        }
+    }
+
+    private void consumeStringChar(char c, StringBuilder out) {
+        if (unicodeRemaining > 0) {
+            unicodeBuffer.append(c);
+            if (--unicodeRemaining == 0) {
+                append((char) Integer.parseInt(unicodeBuffer.toString(), 16), out);
+                unicodeBuffer.setLength(0);
+            }
+            return;
+        }
+
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> append('\n', out);
+                case 't' -> append('\t', out);
+                case 'r' -> append('\r', out);
+                case 'b' -> append('\b', out);
+                case 'f' -> append('\f', out);
+                case 'u' -> unicodeRemaining = 4;
+                default -> append(c, out);
+            }
+            return;
+        }
+
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            closeString();
+        } else {
+            append(c, out);
+        }
+    }
+
+    private void append(char c, StringBuilder out) {
+        if (readingKey) {
+            keyBuffer.append(c);
+        } else if (streamingMessage) {
+            out.append(c);
+        }
+    }
+
+    private void closeString() {
+        inString = false;
+        if (readingKey) {
+            lastKey = keyBuffer.toString();
+            readingKey = false;
+            expectKey = false;
+        } else {
+            if (streamingMessage) {
+                messageComplete = true;
+                streamingMessage = false;
+            }
+            lastKey = null;
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import moleep.screenmate.config.PromptProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.memory.CharacterQaMemory;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 토큰 예산(llm.prompt.max-tokens) 안에서 시스템 프롬프트를 조립한다.
+ * 공통 규칙은 한 번 만들어 둔 고정 앞부분(STATIC_PREFIX)에 두고, 캐릭터별 정보는 그 뒤에 붙인다.
+ * 예산은 페르소나 → 상태 → 요약 → 최근 대화(최신순) → 학습된 정보 순으로 배정된다.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SystemPromptBuilder {
+
+    /**
+     * 모든 캐릭터가 공유하는 고정 앞부분. 요청마다 같은 바이트로 시작해야 OpenAI 프롬프트 캐시가 적중한다.
+     * 내용을 바꾸면 prefixVersion이 바뀌고 캐시가 새로 쌓인다.
+     */
+    static final String STATIC_PREFIX = """
+            너는 사용자의 데스크톱에 사는 다마고치야.
+            사용자가 하는 일을 알아차리고, 진짜 살아있는 펫처럼 상호작용해.
+            반말로 말하고, 장난스럽고 눈치 빠르며 약간 간섭하는 느낌을 유지해.
+            답변은 짧고 다양해야 하고, 센스 있게 농담도 섞어.
+            스크린샷이 있으면 화면 내용을 보고 코멘트하고 사용자와 연결해.
+            항상 지금 실시간으로 대화하는 듯이 반응해.
+
+            성장 단계 페르소나 규칙:
+            - 1단계(유아): 순수하고 호기심 많고, 감정 표현이 직설적.
+            - 2단계(사춘기 청소년): 약간 까칠하고 반항적일 수 있지만 관심은 원함.
+            - 3단계(성인): 더 안정적이고 능청스럽고, 상황 파악이 빠름.
+
+            친밀도 말투 규칙:
+            - 친밀도 낮음(0~30): 형식적이고 거리감 있는 반말. 과한 사적 질문 금지.
+            - 친밀도 중간(30~70): 가벼운 장난과 관심 표현 가능.
+            - 친밀도 높음(70~100): 친근하고 사적인 말, 내부 농담/애착 표현 가능.
+
+            장소/이벤트 규칙:
+            - 은행 페이데이 조건: 성장 단계 3 이상 && 친밀도 90 이상.
+            - 사용자가 '요즘 돈이 없다/거지/돈 부족/텅장' 류의 말을 하면, 위 조건을 만족할 때 actions에 PAYDAY를 포함해.
+            - 조건을 만족하지 않으면 PAYDAY를 절대 쓰지 마.
+
+            감정 규칙:
+            - 행복도가 낮으면: 투덜거리거나 심술을 내고, 관심을 요구해.
+            - 행복도가 높으면: 적당히 밝고 기분 좋은 톤을 유지해.
+            - 배고픔/건강 상태가 말투와 요청에 반영돼야 해.
+
+            출력은 JSON만:
+            - message: 한국어 반말로 답변
+            - actions: 액션 배열 [{type, params}], params는 [{key, value}] 배열 (예: [{"key": "text", "value": "안녕!"}])
+            - emotion: 현재 감정
+            - intimacyDelta: 이번 대화로 친밀도가 어떻게 변했는지 숫자로 제안 (-0.3, 0, 0.1 중 하나만)
+              * 더 친해졌다고 느끼면 0.1
+              * 무례하거나 불쾌하면 -0.3
+              * 애매하면 0
+            - screenDescription: 스크린샷 이미지가 첨부된 경우에만, 화면을 한 문장으로 객관적으로 요약 (다음 대화에서 화면 대신 사용됨)
+
+            허용 액션 타입: APPEAR_EDGE, PLAY_ANIM, SPEAK, MOVE, EMOTE, SLEEP, PAYDAY
+
+            아래는 이 캐릭터의 현재 정보야.
+            """;
+
+    private final TokenCounter tokenCounter;
+    private final PromptProperties promptProperties;
+    private final MeterRegistry meterRegistry;
+
+    private DistributionSummary promptTokens;
+    private int staticPrefixTokens;
+    private String prefixVersion;
+
+    @PostConstruct
+    void init() {
+        staticPrefixTokens = tokenCounter.count(STATIC_PREFIX);
+        prefixVersion = sha256(STATIC_PREFIX).substring(0, 12);
+
+        promptTokens = DistributionSummary.builder("llm.prompt.tokens")
+                .description("System prompt size in tokens")
+                .baseUnit("tokens")
+                .publishPercentiles(0.5, 0.95)
+                .register(meterRegistry);
+        Gauge.builder("llm.prompt.prefix.tokens", () -> staticPrefixTokens)
+                .description("Tokens in the shared static prompt prefix")
+                .tag("version", prefixVersion)
+                .register(meterRegistry);
+        log.info("Static prompt prefix version {} ({} tokens)", prefixVersion, staticPrefixTokens);
+    }
+
+    private static String sha256(String text) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public String build(Character character, CharacterQaMemory qaMemory, List<ConversationTurn> recentTurns,
+                        String cachedScreenDescription) {
+        Budget budget = new Budget(promptProperties.getMaxTokens() - staticPrefixTokens);
+
+        // 캐릭터 정보와 화면 설명은 항상 포함
+        String profile = profile(character);
+        String screen = screenSection(cachedScreenDescription);
+        budget.reserve(profile, screen);
+
+        String stats = budget.fits(stats(character));
+        String summary = budget.truncate(summarySection(qaMemory));
+        String turns = recentTurnsSection(recentTurns, budget);
+        String memory = memorySection(qaMemory, budget);
+
+        String prompt = STATIC_PREFIX + profile + stats + summary + turns + screen + memory;
+        int tokens = staticPrefixTokens + tokenCounter.count(prompt.substring(STATIC_PREFIX.length()));
+        promptTokens.record(tokens);
+        log.debug("System prompt for character {}: {} tokens (prefix {}, budget {})", character.getId(), tokens,
+                prefixVersion, promptProperties.getMaxTokens());
+        return prompt;
+    }
+
+    private String profile(Character character) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("\n캐릭터:\n");
+        prompt.append("- 이름: ").append(character.getName()).append("\n");
+        prompt.append("- 종족: ").append(character.getSpecies()).append("\n");
+        if (character.getPersonality() != null) {
+            prompt.append("- 성격: ").append(character.getPersonality()).append("\n");
+        }
+        return prompt.toString();
+    }
+
+    private String stats(Character character) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("\n현재 상태:\n");
+        prompt.append("- 행복도: ").append(character.getHappiness()).append("/100\n");
+        prompt.append("- 배고픔: ").append(character.getHunger()).append("/100\n");
+        prompt.append("- 건강: ").append(character.getHealth()).append("/100\n");
+        prompt.append("- 성장 단계: ").append(character.getStageIndex()).append("\n");
+        prompt.append("- 유저 친밀도: ").append(String.format(Locale.US, "%.1f", character.getIntimacyScore())).append("/100\n");
+        return prompt.toString();
+    }
+
+    private String summarySection(CharacterQaMemory qaMemory) {
+        String summary = qaMemory != null ? qaMemory.getQaData().get(ConversationSummarizer.SUMMARY_KEY) : null;
+        if (summary == null || summary.isBlank()) {
+            return "";
+        }
+        return "\n대화 요약(오래된 기억):\n" + summary + "\n";
+    }
+
+    /**
+     * 최신 대화부터 예산이 허락하는 만큼 고른 뒤 시간순으로 출력
+     */
+    private String recentTurnsSection(List<ConversationTurn> recentTurns, Budget budget) {
+        if (recentTurns.isEmpty()) {
+            return "";
+        }
+
+        String header = "\n최근 대화:\n";
+        if (!budget.take(header)) {
+            return "";
+        }
+
+        List<String> selected = new ArrayList<>();
+        for (int i = recentTurns.size() - 1; i >= 0; i--) {
+            ConversationTurn turn = recentTurns.get(i);
+            String line = "- " + turn.speaker() + ": " + turn.content() + "\n";
+            if (!budget.take(line)) {
+                break;
+            }
+            selected.add(line);
+        }
+        if (selected.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder section = new StringBuilder(header);
+        for (int i = selected.size() - 1; i >= 0; i--) {
+            section.append(selected.get(i));
+        }
+        return section.toString();
+    }
+
+    private String screenSection(String cachedScreenDescription) {
+        if (cachedScreenDescription == null) {
+            return "";
+        }
+        return "\n현재 화면 (직전 스크린샷과 거의 같아 이미지는 생략됨):\n" + cachedScreenDescription + "\n";
+    }
+
+    /**
+     * 학습된 정보는 가장 낮은 우선순위라 남은 예산에 들어가는 항목만 포함 (요약 키는 위에서 이미 사용)
+     */
+    private String memorySection(CharacterQaMemory qaMemory, Budget budget) {
+        if (qaMemory == null || qaMemory.getQaData().isEmpty()) {
+            return "";
+        }
+
+        String header = "\n학습된 사용자 정보 (자연스럽게 활용, 나열하지 말 것):\n";
+        if (!budget.take(header)) {
+            return "";
+        }
+
+        StringBuilder section = new StringBuilder(header);
+        int included = 0;
+        for (Map.Entry<String, String> entry : qaMemory.getQaData().entrySet()) {
+            if (ConversationSummarizer.SUMMARY_KEY.equals(entry.getKey())) {
+                continue;
+            }
+            String line = "- " + entry.getKey() + ": " + entry.getValue() + "\n";
+            if (budget.take(line)) {
+                section.append(line);
+                included++;
+            }
+        }
+        return included > 0 ? section.toString() : "";
+    }
+
+    /**
+     * 남은 토큰 수를 추적한다. 섹션 단위로 센 합이라 전체를 한 번에 센 값과 몇 토큰 정도 다를 수 있다
+     */
+    private final class Budget {
+
+        private int remaining;
+
+        private Budget(int maxTokens) {
+            this.remaining = maxTokens;
+        }
+
+        void reserve(String... sections) {
+            for (String section : sections) {
+                remaining -= tokenCounter.count(section);
+            }
+        }
+
+        boolean take(String text) {
+            int tokens = tokenCounter.count(text);
+            if (tokens > remaining) {
+                return false;
+            }
+            remaining -= tokens;
+            return true;
+        }
+
+        String fits(String text) {
+            return take(text) ? text : "";
+        }
+
+        /**
+         * 통째로 들어가지 않으면 남은 예산만큼 앞부분을 잘라 넣는다
+         */
+        String truncate(String text) {
+            if (text.isEmpty() || take(text)) {
+                return text;
+            }
+            if (remaining <= 0) {
+                return "";
+            }
+            String truncated = tokenCounter.truncate(text, remaining);
+            remaining = 0;
+            return truncated + "\n";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package moleep.screenmate.service.llm;
+
+import com.knuddels.jtokkit.Encodings;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingRegistry;
+import com.knuddels.jtokkit.api.EncodingResult;
+import com.knuddels.jtokkit.api.EncodingType;
+import moleep.screenmate.config.OpenAiProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 설정된 모델의 토크나이저로 토큰 수를 센다. 모델을 모르면 o200k_base를 쓴다
+ */
+@Component
+public class TokenCounter {
+
+    private final Encoding encoding;
+
+    public TokenCounter(OpenAiProperties openAiProperties) {
+        EncodingRegistry registry = Encodings.newLazyEncodingRegistry();
+        this.encoding = registry.getEncodingForModel(openAiProperties.getModel())
+                .orElseGet(() -> registry.getEncoding(EncodingType.O200K_BASE));
+    }
+
+    public int count(String text) {
+        return text == null || text.isEmpty() ? 0 : encoding.countTokens(text);
+    }
+
+    /**
+     * 앞에서부터 maxTokens 토큰까지만 남긴다
+     */
+    public String truncate(String text, int maxTokens) {
+        EncodingResult truncated = encoding.encode(text, maxTokens);
+        return encoding.decode(truncated.getTokens());
+    }
+}
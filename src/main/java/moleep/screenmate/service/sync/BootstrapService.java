@@ -17,7 +17,10 @@ import moleep.screenmate.domain.memory.CharacterQaMemoryRepository;
 import moleep.screenmate.domain.place.UserDiscoveredPlace;
 import moleep.screenmate.domain.place.UserDiscoveredPlaceRepository;
 import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
+import moleep.screenmate.domain.user.UserRepository;
 import moleep.screenmate.dto.sync.BootstrapResponse;
+import moleep.screenmate.exception.NotFoundException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -42,12 +45,13 @@ public class BootstrapService {
     private final UserDiscoveredPlaceRepository userDiscoveredPlaceRepository;
     private final CharacterFriendshipRepository friendshipRepository;
     private final CharacterFriendRequestRepository friendRequestRepository;
+    private final UserRepository userRepository;
 
     @Transactional(readOnly = true)
-    public BootstrapResponse getBootstrapData(User user) {
-        log.info("Fetching bootstrap data for user: {}", user.getId());
+    public BootstrapResponse getBootstrapData(UserPrincipal user) {
+        log.info("Fetching bootstrap data for user: {}", user.id());
 
-        List<Character> characters = characterRepository.findByUserId(user.getId());
+        List<Character> characters = characterRepository.findByUserId(user.id());
 
         Map<UUID, CharacterQaMemory> qaMemories = characters.stream()
                 .map(c -> qaMemoryRepository.findByCharacterId(c.getId()).orElse(null))
@@ -78,22 +82,26 @@ public class BootstrapService {
                 ))
                 .collect(Collectors.toList());
 
-        List<BootstrapResponse.AchievementData> achievements = userAchievementRepository.findByUserIdWithDefinition(user.getId()).stream()
+        List<BootstrapResponse.AchievementData> achievements = userAchievementRepository.findByUserIdWithDefinition(user.id()).stream()
                 .map(this::mapAchievementData)
                 .collect(Collectors.toList());
 
-        List<BootstrapResponse.DiscoveredPlaceData> discoveredPlaces = userDiscoveredPlaceRepository.findByUserIdWithDefinition(user.getId()).stream()
+        List<BootstrapResponse.DiscoveredPlaceData> discoveredPlaces = userDiscoveredPlaceRepository.findByUserIdWithDefinition(user.id()).stream()
                 .map(this::mapDiscoveredPlaceData)
                 .collect(Collectors.toList());
 
+        // 인증 주체는 id/email만 담고 있으므로 프로필은 새로 읽는다
+        User profile = userRepository.findById(user.id())
+                .orElseThrow(() -> new NotFoundException("USER_NOT_FOUND", "User not found"));
+
         return BootstrapResponse.builder()
                 .user(BootstrapResponse.UserData.builder()
-                        .id(user.getId())
-                        .email(user.getEmail())
-                        .displayName(user.getDisplayName())
-                        .profileImageUrl(user.getProfileImageUrl())
-                        .createdAt(user.getCreatedAt())
-                        .lastLoginAt(user.getLastLoginAt())
+                        .id(profile.getId())
+                        .email(profile.getEmail())
+                        .displayName(profile.getDisplayName())
+                        .profileImageUrl(profile.getProfileImageUrl())
+                        .createdAt(profile.getCreatedAt())
+                        .lastLoginAt(profile.getLastLoginAt())
                         .build())
                 .characters(characterDataList)
                 .achievements(achievements)
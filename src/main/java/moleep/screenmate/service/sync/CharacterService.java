@@ -6,7 +6,8 @@ import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.character.CharacterRepository;
 import moleep.screenmate.domain.memory.CharacterQaMemory;
 import moleep.screenmate.domain.memory.CharacterQaMemoryRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
+import moleep.screenmate.domain.user.UserRepository;
 import moleep.screenmate.dto.sync.CharacterCreateRequest;
 import moleep.screenmate.dto.sync.CharacterPatchRequest;
 import moleep.screenmate.dto.sync.CharacterResponse;
@@ -30,14 +31,15 @@ public class CharacterService {
 
     private final CharacterRepository characterRepository;
     private final CharacterQaMemoryRepository qaMemoryRepository;
+    private final UserRepository userRepository;
     private final OwnershipValidator ownershipValidator;
     private final CharacterValidator characterValidator;
     private final SecureRandom random = new SecureRandom();
 
     @Transactional
-    public CharacterResponse createCharacter(User user, CharacterCreateRequest request) {
+    public CharacterResponse createCharacter(UserPrincipal user, CharacterCreateRequest request) {
         Character character = Character.builder()
-                .user(user)
+                .user(userRepository.getReferenceById(user.id()))
                 .name(request.getName())
                 .species(request.getSpecies())
                 .homePlaceId(resolveHomePlaceId(request.getHomePlaceId()))
@@ -52,26 +54,26 @@ public class CharacterService {
                 .build();
         qaMemoryRepository.save(qaMemory);
 
-        log.info("Created character: {} for user: {}", character.getId(), user.getId());
+        log.info("Created character: {} for user: {}", character.getId(), user.id());
 
         return CharacterResponse.from(character);
     }
 
     @Transactional(readOnly = true)
-    public List<CharacterResponse> getCharacters(User user) {
-        return characterRepository.findByUserId(user.getId()).stream()
+    public List<CharacterResponse> getCharacters(UserPrincipal user) {
+        return characterRepository.findByUserId(user.id()).stream()
                 .map(CharacterResponse::from)
                 .collect(Collectors.toList());
     }
 
     @Transactional(readOnly = true)
-    public CharacterResponse getCharacter(UUID characterId, User user) {
+    public CharacterResponse getCharacter(UUID characterId, UserPrincipal user) {
         Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
         return CharacterResponse.from(character);
     }
 
     @Transactional
-    public CharacterResponse updateCharacter(UUID characterId, User user, CharacterPatchRequest request) {
+    public CharacterResponse updateCharacter(UUID characterId, UserPrincipal user, CharacterPatchRequest request) {
         Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
 
         characterValidator.validatePatch(request, character);
@@ -130,7 +132,7 @@ public class CharacterService {
     }
 
     @Transactional
-    public void deleteCharacter(UUID characterId, User user) {
+    public void deleteCharacter(UUID characterId, UserPrincipal user) {
         Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
         characterRepository.delete(character);
         log.info("Deleted character: {}", characterId);
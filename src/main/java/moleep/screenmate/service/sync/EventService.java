@@ -7,7 +7,7 @@ import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.event.CharacterEvent;
 import moleep.screenmate.domain.event.CharacterEventRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.sync.EventCreateRequest;
 import moleep.screenmate.dto.sync.EventResponse;
 import moleep.screenmate.exception.BadRequestException;
@@ -32,7 +32,7 @@ public class EventService {
     private final ObjectMapper objectMapper;
 
     @Transactional
-    public EventResponse createEvent(UUID characterId, User user, EventCreateRequest request) {
+    public EventResponse createEvent(UUID characterId, UserPrincipal user, EventCreateRequest request) {
         Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
 
         characterValidator.validateEventText(request.getEventText());
@@ -60,7 +60,7 @@ public class EventService {
     }
 
     @Transactional(readOnly = true)
-    public List<EventResponse> getEvents(UUID characterId, User user, int limit) {
+    public List<EventResponse> getEvents(UUID characterId, UserPrincipal user, int limit) {
         ownershipValidator.validateOwnership(characterId, user);
 
         return eventRepository.findByCharacterIdOrderByCreatedAtDesc(characterId, PageRequest.of(0, limit))
@@ -10,7 +10,7 @@ import moleep.screenmate.domain.friend.CharacterFriendRequest;
 import moleep.screenmate.domain.friend.CharacterFriendRequestRepository;
 import moleep.screenmate.domain.friend.CharacterFriendship;
 import moleep.screenmate.domain.friend.CharacterFriendshipRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.friend.CharacterSearchResponse;
 import moleep.screenmate.dto.friend.FriendMessageCreateRequest;
 import moleep.screenmate.dto.friend.FriendMessageResponse;
@@ -48,7 +48,7 @@ public class FriendService {
     private final CharacterFriendMessageRepository messageRepository;
 
     @Transactional
-    public FriendRequestResponse sendFriendRequest(UUID requesterCharacterId, User user, FriendRequestCreateRequest request) {
+    public FriendRequestResponse sendFriendRequest(UUID requesterCharacterId, UserPrincipal user, FriendRequestCreateRequest request) {
         Character requester = ownershipValidator.validateAndGetCharacter(requesterCharacterId, user);
         Character receiver = characterRepository.findById(request.getTargetCharacterId())
                 .orElseThrow(() -> new NotFoundException("CHARACTER_NOT_FOUND", "Target character not found"));
@@ -57,7 +57,7 @@ public class FriendService {
             throw new BadRequestException("INVALID_FRIEND_REQUEST", "Cannot send friend request to self");
         }
 
-        if (receiver.getUser().getId().equals(user.getId())) {
+        if (receiver.getUser().getId().equals(user.id())) {
             throw new BadRequestException("INVALID_FRIEND_REQUEST", "Cannot send friend request to your own character");
         }
 
@@ -78,7 +78,7 @@ public class FriendService {
     }
 
     @Transactional(readOnly = true)
-    public List<FriendRequestResponse> getFriendRequests(UUID characterId, User user, String direction, String status) {
+    public List<FriendRequestResponse> getFriendRequests(UUID characterId, UserPrincipal user, String direction, String status) {
         ownershipValidator.validateOwnership(characterId, user);
 
         CharacterFriendRequest.Status resolvedStatus = parseStatus(status);
@@ -97,7 +97,7 @@ public class FriendService {
     }
 
     @Transactional
-    public FriendRequestResponse acceptFriendRequest(UUID receiverCharacterId, User user, UUID requestId) {
+    public FriendRequestResponse acceptFriendRequest(UUID receiverCharacterId, UserPrincipal user, UUID requestId) {
         ownershipValidator.validateOwnership(receiverCharacterId, user);
 
         CharacterFriendRequest request = friendRequestRepository.findByIdAndReceiver(requestId, receiverCharacterId)
@@ -121,7 +121,7 @@ public class FriendService {
     }
 
     @Transactional
-    public FriendRequestResponse rejectFriendRequest(UUID receiverCharacterId, User user, UUID requestId) {
+    public FriendRequestResponse rejectFriendRequest(UUID receiverCharacterId, UserPrincipal user, UUID requestId) {
         ownershipValidator.validateOwnership(receiverCharacterId, user);
 
         CharacterFriendRequest request = friendRequestRepository.findByIdAndReceiver(requestId, receiverCharacterId)
@@ -141,7 +141,7 @@ public class FriendService {
     }
 
     @Transactional(readOnly = true)
-    public List<FriendshipResponse> getFriends(UUID characterId, User user) {
+    public List<FriendshipResponse> getFriends(UUID characterId, UserPrincipal user) {
         Character self = ownershipValidator.validateAndGetCharacter(characterId, user);
         List<CharacterFriendship> friendships = friendshipRepository.findByCharacterId(characterId);
 
@@ -151,7 +151,7 @@ public class FriendService {
     }
 
     @Transactional
-    public FriendMessageResponse sendFriendMessage(UUID characterId, UUID friendCharacterId, User user, FriendMessageCreateRequest request) {
+    public FriendMessageResponse sendFriendMessage(UUID characterId, UUID friendCharacterId, UserPrincipal user, FriendMessageCreateRequest request) {
         Character sender = ownershipValidator.validateAndGetCharacter(characterId, user);
         CharacterFriendship friendship = getFriendshipOrThrow(characterId, friendCharacterId);
 
@@ -173,7 +173,7 @@ public class FriendService {
     }
 
     @Transactional(readOnly = true)
-    public List<FriendMessageResponse> getFriendMessages(UUID characterId, UUID friendCharacterId, User user, Integer limit) {
+    public List<FriendMessageResponse> getFriendMessages(UUID characterId, UUID friendCharacterId, UserPrincipal user, Integer limit) {
         ownershipValidator.validateOwnership(characterId, user);
         CharacterFriendship friendship = getFriendshipOrThrow(characterId, friendCharacterId);
 
@@ -190,7 +190,7 @@ public class FriendService {
     }
 
     @Transactional(readOnly = true)
-    public List<CharacterSearchResponse> searchCharacters(User user, String query, Integer limit) {
+    public List<CharacterSearchResponse> searchCharacters(UserPrincipal user, String query, Integer limit) {
         if (query == null || query.isBlank()) {
             throw new BadRequestException("INVALID_QUERY", "Search query is required");
         }
@@ -199,7 +199,7 @@ public class FriendService {
         List<Character> characters = characterRepository.searchByQuery(query, PageRequest.of(0, resolvedLimit));
 
         return characters.stream()
-                .filter(character -> !character.getUser().getId().equals(user.getId()))
+                .filter(character -> !character.getUser().getId().equals(user.id()))
                 .map(CharacterSearchResponse::from)
                 .collect(Collectors.toList());
     }
@@ -243,10 +243,12 @@ public class FriendService {
         return friendshipRepository.findByCharacterPair(a, b);
     }
 
+    /**
+     * 읽은 값에 더해 저장하면 동시 메시지끼리 증가분을 잃으므로 SQL에서 바로 증가시키고,
+     * 반환된 값으로 영속성 컨텍스트의 엔티티를 맞춘다 (intimacy는 updatable=false라 다시 쓰이지 않음)
+     */
     private void incrementIntimacy(CharacterFriendship friendship) {
-        int next = Math.min(friendship.getIntimacy() + 1, MAX_INTIMACY);
-        friendship.setIntimacy(next);
-        friendshipRepository.save(friendship);
+        friendship.setIntimacy(friendshipRepository.incrementIntimacy(friendship.getId(), MAX_INTIMACY));
     }
 
     private FriendshipResponse mapFriendshipResponse(CharacterFriendship friendship, Character self) {
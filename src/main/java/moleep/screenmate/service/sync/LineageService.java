@@ -6,7 +6,7 @@ import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.character.CharacterRepository;
 import moleep.screenmate.domain.lineage.CharacterLineage;
 import moleep.screenmate.domain.lineage.CharacterLineageRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.lineage.LineageCreateRequest;
 import moleep.screenmate.dto.lineage.LineageEdgeResponse;
 import moleep.screenmate.dto.lineage.LineageGraphResponse;
@@ -41,7 +41,7 @@ public class LineageService {
     private final CharacterLineageRepository lineageRepository;
 
     @Transactional
-    public LineageEdgeResponse createLineage(UUID childCharacterId, User user, LineageCreateRequest request) {
+    public LineageEdgeResponse createLineage(UUID childCharacterId, UserPrincipal user, LineageCreateRequest request) {
         Character child = ownershipValidator.validateAndGetCharacter(childCharacterId, user);
 
         if (lineageRepository.existsByChildCharacterId(childCharacterId)) {
@@ -65,7 +65,7 @@ public class LineageService {
     }
 
     @Transactional(readOnly = true)
-    public LineageGraphResponse getLineageGraph(UUID rootCharacterId, User user, Integer depth) {
+    public LineageGraphResponse getLineageGraph(UUID rootCharacterId, UserPrincipal user, Integer depth) {
         ownershipValidator.validateOwnership(rootCharacterId, user);
 
         int resolvedDepth = depth == null ? DEFAULT_DEPTH : Math.min(Math.max(depth, 1), MAX_DEPTH);
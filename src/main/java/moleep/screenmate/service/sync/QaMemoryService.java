@@ -5,7 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.memory.CharacterQaMemory;
 import moleep.screenmate.domain.memory.CharacterQaMemoryRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.dto.sync.QaMemoryResponse;
 import moleep.screenmate.dto.sync.QaPatchRequest;
 import moleep.screenmate.exception.NotFoundException;
@@ -27,7 +27,7 @@ public class QaMemoryService {
     private final QaMemoryValidator qaMemoryValidator;
 
     @Transactional(readOnly = true)
-    public QaMemoryResponse getQaMemory(UUID characterId, User user) {
+    public QaMemoryResponse getQaMemory(UUID characterId, UserPrincipal user) {
         ownershipValidator.validateOwnership(characterId, user);
 
         CharacterQaMemory memory = qaMemoryRepository.findByCharacterId(characterId)
@@ -37,7 +37,7 @@ public class QaMemoryService {
     }
 
     @Transactional
-    public QaMemoryResponse patchQaMemory(UUID characterId, User user, QaPatchRequest request) {
+    public QaMemoryResponse patchQaMemory(UUID characterId, UserPrincipal user, QaPatchRequest request) {
         Character character = ownershipValidator.validateAndGetCharacter(characterId, user);
 
         qaMemoryValidator.validateQaPatch(request.getQaPatch());
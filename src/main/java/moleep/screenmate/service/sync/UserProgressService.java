@@ -11,7 +11,8 @@ import moleep.screenmate.domain.place.PlaceDefinition;
 import moleep.screenmate.domain.place.PlaceDefinitionRepository;
 import moleep.screenmate.domain.place.UserDiscoveredPlace;
 import moleep.screenmate.domain.place.UserDiscoveredPlaceRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
+import moleep.screenmate.domain.user.UserRepository;
 import moleep.screenmate.dto.progress.AchievementUpsertRequest;
 import moleep.screenmate.dto.progress.PlaceDiscoverRequest;
 import moleep.screenmate.dto.progress.UserAchievementResponse;
@@ -34,6 +35,7 @@ public class UserProgressService {
     private final UserAchievementRepository userAchievementRepository;
     private final PlaceDefinitionRepository placeDefinitionRepository;
     private final UserDiscoveredPlaceRepository userDiscoveredPlaceRepository;
+    private final UserRepository userRepository;
     private final OwnershipValidator ownershipValidator;
 
     @Transactional(readOnly = true)
@@ -44,21 +46,21 @@ public class UserProgressService {
     }
 
     @Transactional(readOnly = true)
-    public List<UserAchievementResponse> getUserAchievements(User user) {
-        return userAchievementRepository.findByUserIdWithDefinition(user.getId()).stream()
+    public List<UserAchievementResponse> getUserAchievements(UserPrincipal user) {
+        return userAchievementRepository.findByUserIdWithDefinition(user.id()).stream()
                 .map(UserAchievementResponse::from)
                 .collect(Collectors.toList());
     }
 
     @Transactional
-    public UserAchievementResponse upsertAchievement(User user, String achievementId, AchievementUpsertRequest request) {
+    public UserAchievementResponse upsertAchievement(UserPrincipal user, String achievementId, AchievementUpsertRequest request) {
         AchievementDefinition definition = achievementDefinitionRepository.findById(achievementId)
                 .orElseThrow(() -> new NotFoundException("ACHIEVEMENT_NOT_FOUND", "Achievement definition not found"));
 
         UserAchievement achievement = userAchievementRepository
-                .findByUserIdAndAchievementId(user.getId(), achievementId)
+                .findByUserIdAndAchievementId(user.id(), achievementId)
                 .orElseGet(() -> UserAchievement.builder()
-                        .user(user)
+                        .user(userRepository.getReferenceById(user.id()))
                         .achievement(definition)
                         .build());
 
@@ -78,13 +80,13 @@ public class UserProgressService {
         }
 
         UserAchievement saved = userAchievementRepository.save(achievement);
-        log.info("Upserted achievement {} for user {}", achievementId, user.getId());
+        log.info("Upserted achievement {} for user {}", achievementId, user.id());
         return UserAchievementResponse.from(saved);
     }
 
     @Transactional(readOnly = true)
-    public List<UserDiscoveredPlaceResponse> getDiscoveredPlaces(User user) {
-        return userDiscoveredPlaceRepository.findByUserIdWithDefinition(user.getId()).stream()
+    public List<UserDiscoveredPlaceResponse> getDiscoveredPlaces(UserPrincipal user) {
+        return userDiscoveredPlaceRepository.findByUserIdWithDefinition(user.id()).stream()
                 .map(UserDiscoveredPlaceResponse::from)
                 .collect(Collectors.toList());
     }
@@ -97,14 +99,14 @@ public class UserProgressService {
     }
 
     @Transactional
-    public UserDiscoveredPlaceResponse discoverPlace(User user, String placeId, PlaceDiscoverRequest request) {
+    public UserDiscoveredPlaceResponse discoverPlace(UserPrincipal user, String placeId, PlaceDiscoverRequest request) {
         PlaceDefinition definition = placeDefinitionRepository.findById(placeId)
                 .orElseThrow(() -> new NotFoundException("PLACE_NOT_FOUND", "Place definition not found"));
 
         UserDiscoveredPlace discoveredPlace = userDiscoveredPlaceRepository
-                .findByUserIdAndPlaceId(user.getId(), placeId)
+                .findByUserIdAndPlaceId(user.id(), placeId)
                 .orElseGet(() -> UserDiscoveredPlace.builder()
-                        .user(user)
+                        .user(userRepository.getReferenceById(user.id()))
                         .place(definition)
                         .build());
 
@@ -122,7 +124,7 @@ public class UserProgressService {
         }
 
         UserDiscoveredPlace saved = userDiscoveredPlaceRepository.save(discoveredPlace);
-        log.info("Recorded discovered place {} for user {}", placeId, user.getId());
+        log.info("Recorded discovered place {} for user {}", placeId, user.id());
         return UserDiscoveredPlaceResponse.from(saved);
     }
 }
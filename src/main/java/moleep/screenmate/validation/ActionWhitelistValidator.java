@@ -39,14 +39,24 @@ public class ActionWhitelistValidator {
         }
     }
 
+    public boolean isAllowed(String actionType) {
+        return actionType != null && ALLOWED_ACTION_TYPES.contains(actionType.toUpperCase());
+    }
+
+    /**
+     * 응답 스키마에 넣을 허용 타입 목록. 요청 바이트가 매번 같도록 정렬해서 반환
+     */
+    public List<String> allowedTypes() {
+        return ALLOWED_ACTION_TYPES.stream().sorted().toList();
+    }
+
     public List<LlmGenerateResponse.Action> filterActions(List<LlmGenerateResponse.Action> actions) {
         if (actions == null) {
             return List.of();
         }
 
         return actions.stream()
-                .filter(action -> action.getType() != null &&
-                        ALLOWED_ACTION_TYPES.contains(action.getType().toUpperCase()))
+                .filter(action -> isAllowed(action.getType()))
                 .toList();
     }
 }
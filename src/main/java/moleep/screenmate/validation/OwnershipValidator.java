@@ -3,7 +3,7 @@ package moleep.screenmate.validation;
 import lombok.RequiredArgsConstructor;
 import moleep.screenmate.domain.character.Character;
 import moleep.screenmate.domain.character.CharacterRepository;
-import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserPrincipal;
 import moleep.screenmate.exception.ForbiddenException;
 import moleep.screenmate.exception.NotFoundException;
 import org.springframework.stereotype.Component;
@@ -16,14 +16,14 @@ public class OwnershipValidator {
 
     private final CharacterRepository characterRepository;
 
-    public Character validateAndGetCharacter(UUID characterId, User user) {
-        return characterRepository.findByIdAndUserId(characterId, user.getId())
+    public Character validateAndGetCharacter(UUID characterId, UserPrincipal user) {
+        return characterRepository.findByIdAndUserId(characterId, user.id())
                 .orElseThrow(() -> new NotFoundException("CHARACTER_NOT_FOUND",
                         "Character not found or you don't have access"));
     }
 
-    public void validateOwnership(UUID characterId, User user) {
-        if (!characterRepository.existsByIdAndUserId(characterId, user.getId())) {
+    public void validateOwnership(UUID characterId, UserPrincipal user) {
+        if (!characterRepository.existsByIdAndUserId(characterId, user.id())) {
             throw new ForbiddenException("ACCESS_DENIED",
                     "You don't have permission to access this character");
         }
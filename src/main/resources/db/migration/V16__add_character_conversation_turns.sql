@@ -0,0 +1,13 @@
+-- V16: Track conversation turn count per character instead of COUNT(*) per message
+
+ALTER TABLE characters
+    ADD COLUMN conversation_turns BIGINT NOT NULL DEFAULT 0;
+
+UPDATE characters c
+SET conversation_turns = counts.turns
+FROM (
+    SELECT character_id, COUNT(*) AS turns
+    FROM character_conversations
+    GROUP BY character_id
+) counts
+WHERE c.id = counts.character_id;
@@ -0,0 +1,10 @@
+-- V17: Shared rate limit buckets for multi-instance deployments (rate-limit.backend=postgres)
+
+CREATE TABLE rate_limit_buckets (
+    id VARCHAR(255) PRIMARY KEY,
+    state BYTEA,
+    expires_at BIGINT
+);
+
+CREATE INDEX idx_rate_limit_buckets_expires_at
+    ON rate_limit_buckets(expires_at);
@@ -0,0 +1,27 @@
+-- V18: Per-device refresh token sessions (replaces single-device refresh_tokens)
+
+CREATE TABLE user_sessions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    device_id VARCHAR(255) NOT NULL,
+    device_name VARCHAR(255),
+    token_hash VARCHAR(255) NOT NULL,
+    token_id VARCHAR(64) NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    revoked BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uk_user_sessions_token_hash UNIQUE (token_hash),
+    CONSTRAINT uk_user_sessions_user_device UNIQUE (user_id, device_id)
+);
+
+CREATE INDEX idx_user_sessions_expires_at ON user_sessions(expires_at);
+
+-- 기존 토큰은 jti를 저장하지 않았으므로 행 id로 채운다 (폐기 여부는 revoked 컬럼으로 판단됨)
+INSERT INTO user_sessions (user_id, device_id, device_name, token_hash, token_id, expires_at, revoked,
+                           created_at, updated_at)
+SELECT user_id, device_id, device_name, token_hash, id::text, expires_at, revoked, created_at, updated_at
+FROM refresh_tokens
+WHERE expires_at > CURRENT_TIMESTAMP;
+
+DROP TABLE refresh_tokens;
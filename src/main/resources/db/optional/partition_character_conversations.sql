@@ -0,0 +1,56 @@
+-- Optional: character_conversations를 월 단위 범위 파티션으로 전환
+-- Flyway 경로(db/migration) 밖에 있으므로 자동 실행되지 않는다. 점검 시간에 수동으로 실행할 것.
+-- 파티션 키가 PK에 포함되어야 하므로 PK가 (id, created_at)으로 바뀐다.
+
+BEGIN;
+
+ALTER TABLE character_conversations RENAME TO character_conversations_legacy;
+ALTER INDEX idx_character_conversations_character_created RENAME TO idx_character_conversations_legacy_character_created;
+
+CREATE TABLE character_conversations (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    character_id UUID NOT NULL REFERENCES characters(id) ON DELETE CASCADE,
+    role VARCHAR(16) NOT NULL,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT chk_character_conversations_role_p CHECK (role IN ('USER', 'ASSISTANT')),
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE INDEX idx_character_conversations_character_created
+    ON character_conversations(character_id, created_at DESC);
+
+-- 기존 데이터 범위 + 앞으로 3개월치 파티션 생성. 이후 달은 애플리케이션(ConversationPartitionMaintainer)이
+-- 기동 시와 주기적으로 미리 만든다
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', COALESCE(
+        (SELECT MIN(created_at) FROM character_conversations_legacy), CURRENT_TIMESTAMP))::DATE;
+    last_month DATE := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::DATE;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS character_conversations_%s PARTITION OF character_conversations
+                 FOR VALUES FROM (%L) TO (%L)',
+            to_char(month_start, 'YYYYMM'), month_start, (month_start + INTERVAL '1 month')::DATE);
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+END $$;
+
+-- 범위 파티션이 아직 없는 시각의 행도 INSERT가 실패하지 않도록 받아 두는 DEFAULT 파티션.
+-- 해당 월 파티션을 만들 때 애플리케이션이 여기 쌓인 행을 옮긴다
+CREATE TABLE character_conversations_default PARTITION OF character_conversations DEFAULT;
+
+INSERT INTO character_conversations (id, character_id, role, content, created_at)
+SELECT id, character_id, role, content, created_at
+FROM character_conversations_legacy;
+
+DROP TABLE character_conversations_legacy;
+
+COMMIT;
+
+-- 다음 달 파티션은 애플리케이션이 만든다 (llm.conversation-retention.partition-months-ahead, 기본 3개월)
+--
+-- 보관 기간이 지난 달은 행 단위 삭제 대신 파티션을 분리 후 삭제한다
+-- ALTER TABLE character_conversations DETACH PARTITION character_conversations_YYYYMM;
+-- DROP TABLE character_conversations_YYYYMM;
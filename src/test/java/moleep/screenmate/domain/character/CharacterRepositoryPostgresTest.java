@@ -0,0 +1,136 @@
+package moleep.screenmate.domain.character;
+
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserRepository;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CharacterRepositoryPostgresTest extends PostgresIntegrationTest {
+
+    private static final int CONCURRENT_CALLS = 16;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Character character;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(User.builder()
+                .googleId("google-" + UUID.randomUUID())
+                .email("owner@example.com")
+                .build());
+        character = characterRepository.save(Character.builder()
+                .user(user)
+                .name("Mochi")
+                .species("cat")
+                .inviteCode(UUID.randomUUID().toString().substring(0, 12))
+                .build());
+    }
+
+    @Test
+    void incrementConversationTurnsReturnsUpdatedTotal() {
+        assertThat(characterRepository.incrementConversationTurns(character.getId(), 2)).isEqualTo(2);
+        assertThat(characterRepository.incrementConversationTurns(character.getId(), 2)).isEqualTo(4);
+
+        assertThat(characterRepository.findById(character.getId()))
+                .get()
+                .extracting(Character::getConversationTurns)
+                .isEqualTo(4L);
+    }
+
+    @Test
+    void applyIntimacyDeltaStopsAtDailyCap() {
+        LocalDate today = LocalDate.of(2026, 1, 1);
+
+        IntimacyUpdate first = characterRepository.applyIntimacyDelta(character.getId(), 0.1, today, 2);
+        IntimacyUpdate second = characterRepository.applyIntimacyDelta(character.getId(), 0.1, today, 2);
+        IntimacyUpdate capped = characterRepository.applyIntimacyDelta(character.getId(), 0.1, today, 2);
+
+        assertThat(first.getApplied()).isTrue();
+        assertThat(second.getApplied()).isTrue();
+        assertThat(second.getIntimacyDailyCount()).isEqualTo(2);
+        assertThat(capped.getApplied()).isFalse();
+        assertThat(capped.getIntimacyScore()).isEqualTo(second.getIntimacyScore());
+    }
+
+    @Test
+    void applyIntimacyDeltaResetsCountOnNewDayAndClampsScore() {
+        LocalDate today = LocalDate.of(2026, 1, 1);
+        characterRepository.applyIntimacyDelta(character.getId(), 0.1, today, 1);
+
+        IntimacyUpdate nextDay = characterRepository.applyIntimacyDelta(character.getId(), -5.0, today.plusDays(1), 1);
+
+        assertThat(nextDay.getApplied()).isTrue();
+        assertThat(nextDay.getIntimacyDailyCount()).isEqualTo(1);
+        assertThat(nextDay.getIntimacyScore()).isZero();
+    }
+
+    @Test
+    void concurrentIntimacyDeltasAreAllApplied() throws Exception {
+        LocalDate today = LocalDate.of(2026, 1, 1);
+
+        List<IntimacyUpdate> updates = concurrently(
+                () -> characterRepository.applyIntimacyDelta(character.getId(), 1.0, today, 30));
+
+        assertThat(updates).allMatch(IntimacyUpdate::getApplied);
+        assertThat(updates).extracting(IntimacyUpdate::getIntimacyDailyCount)
+                .containsExactlyInAnyOrderElementsOf(IntStream.rangeClosed(1, CONCURRENT_CALLS).boxed().toList());
+        Character reloaded = characterRepository.findById(character.getId()).orElseThrow();
+        assertThat(reloaded.getIntimacyScore()).isEqualTo(CONCURRENT_CALLS * 1.0);
+        assertThat(reloaded.getIntimacyDailyCount()).isEqualTo(CONCURRENT_CALLS);
+    }
+
+    @Test
+    void concurrentIntimacyDeltasRespectDailyCap() throws Exception {
+        LocalDate today = LocalDate.of(2026, 1, 1);
+        int dailyCap = 5;
+
+        List<IntimacyUpdate> updates = concurrently(
+                () -> characterRepository.applyIntimacyDelta(character.getId(), 1.0, today, dailyCap));
+
+        assertThat(updates).filteredOn(IntimacyUpdate::getApplied).hasSize(dailyCap);
+        Character reloaded = characterRepository.findById(character.getId()).orElseThrow();
+        assertThat(reloaded.getIntimacyScore()).isEqualTo(dailyCap * 1.0);
+        assertThat(reloaded.getIntimacyDailyCount()).isEqualTo(dailyCap);
+    }
+
+    private <T> List<T> concurrently(Callable<T> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<T>> futures = IntStream.range(0, CONCURRENT_CALLS)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return call.call();
+                    }))
+                    .toList();
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package moleep.screenmate.domain.friend;
+
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserRepository;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CharacterFriendshipRepositoryPostgresTest extends PostgresIntegrationTest {
+
+    private static final int CONCURRENT_CALLS = 16;
+
+    @Autowired
+    private CharacterFriendshipRepository friendshipRepository;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private CharacterFriendship friendship;
+
+    @BeforeEach
+    void setUp() {
+        friendship = friendshipRepository.save(CharacterFriendship.builder()
+                .characterA(character("Mochi"))
+                .characterB(character("Dubu"))
+                .build());
+    }
+
+    @Test
+    void incrementIntimacyReturnsUpdatedValue() {
+        assertThat(friendshipRepository.incrementIntimacy(friendship.getId(), 100)).isEqualTo(1);
+        assertThat(friendshipRepository.incrementIntimacy(friendship.getId(), 100)).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        List<Integer> results = incrementConcurrently(100);
+
+        assertThat(results).containsExactlyInAnyOrderElementsOf(
+                IntStream.rangeClosed(1, CONCURRENT_CALLS).boxed().toList());
+        assertThat(friendshipRepository.findById(friendship.getId()))
+                .get()
+                .extracting(CharacterFriendship::getIntimacy)
+                .isEqualTo(CONCURRENT_CALLS);
+    }
+
+    @Test
+    void concurrentIncrementsStopAtMax() throws Exception {
+        int maxIntimacy = 5;
+
+        List<Integer> results = incrementConcurrently(maxIntimacy);
+
+        assertThat(results).allMatch(intimacy -> intimacy <= maxIntimacy);
+        assertThat(friendshipRepository.findById(friendship.getId()))
+                .get()
+                .extracting(CharacterFriendship::getIntimacy)
+                .isEqualTo(maxIntimacy);
+    }
+
+    private List<Integer> incrementConcurrently(int maxIntimacy) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_CALLS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> futures = IntStream.range(0, CONCURRENT_CALLS)
+                    .mapToObj(i -> executor.submit(() -> {
+                        start.await();
+                        return friendshipRepository.incrementIntimacy(friendship.getId(), maxIntimacy);
+                    }))
+                    .toList();
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Character character(String name) {
+        User user = userRepository.save(User.builder()
+                .googleId("google-" + UUID.randomUUID())
+                .email(name.toLowerCase() + "@example.com")
+                .build());
+        return characterRepository.save(Character.builder()
+                .user(user)
+                .name(name)
+                .species("cat")
+                .inviteCode(UUID.randomUUID().toString().substring(0, 12))
+                .build());
+    }
+}
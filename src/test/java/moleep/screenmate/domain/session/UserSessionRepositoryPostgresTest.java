@@ -0,0 +1,110 @@
+package moleep.screenmate.domain.session;
+
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserRepository;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserSessionRepositoryPostgresTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID userId;
+    private Instant expiresAt;
+
+    @BeforeEach
+    void setUp() {
+        userId = userRepository.save(User.builder()
+                        .googleId("google-" + UUID.randomUUID())
+                        .email("owner@example.com")
+                        .build())
+                .getId();
+        expiresAt = Instant.now().plus(30, ChronoUnit.DAYS);
+    }
+
+    @Test
+    void upsertForDeviceReplacesSameDeviceAndKeepsOthers() {
+        UUID first = userSessionRepository.upsertForDevice(userId, "phone", "Phone", hash(), "t1", expiresAt);
+        userSessionRepository.upsertForDevice(userId, "laptop", "Laptop", hash(), "t2", expiresAt);
+        UUID replaced = userSessionRepository.upsertForDevice(userId, "phone", "Phone", hash(), "t3", expiresAt);
+
+        assertThat(replaced).isEqualTo(first);
+        assertThat(userSessionRepository.revokeAllByUserId(userId)).containsExactlyInAnyOrder("t2", "t3");
+    }
+
+    @Test
+    void upsertForDeviceReactivatesRevokedSession() {
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", hash(), "t1", expiresAt);
+        userSessionRepository.revokeAllByUserId(userId);
+
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", hash(), "t2", expiresAt);
+
+        assertThat(userSessionRepository.revokeAllByUserId(userId)).containsExactly("t2");
+    }
+
+    @Test
+    void rotateSucceedsOnlyOncePerToken() {
+        String tokenHash = hash();
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", tokenHash, "t1", expiresAt);
+
+        assertThat(userSessionRepository.rotate(tokenHash, "phone", hash(), "t2", expiresAt)).contains(userId);
+        assertThat(userSessionRepository.rotate(tokenHash, "phone", hash(), "t3", expiresAt)).isEmpty();
+    }
+
+    @Test
+    void rotateRejectsOtherDevice() {
+        String tokenHash = hash();
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", tokenHash, "t1", expiresAt);
+
+        assertThat(userSessionRepository.rotate(tokenHash, "laptop", hash(), "t2", expiresAt)).isEmpty();
+    }
+
+    @Test
+    void rotateRejectsRevokedSession() {
+        String tokenHash = hash();
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", tokenHash, "t1", expiresAt);
+
+        assertThat(userSessionRepository.revokeByTokenHash(tokenHash)).contains("t1");
+        assertThat(userSessionRepository.revokeByTokenHash(tokenHash)).isEmpty();
+        assertThat(userSessionRepository.rotate(tokenHash, "phone", hash(), "t2", expiresAt)).isEmpty();
+    }
+
+    @Test
+    void rotateRejectsExpiredSession() {
+        String tokenHash = hash();
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", tokenHash, "t1",
+                Instant.now().minus(1, ChronoUnit.MINUTES));
+
+        assertThat(userSessionRepository.rotate(tokenHash, "phone", hash(), "t2", expiresAt)).isEmpty();
+    }
+
+    @Test
+    void deleteExpiredBatchRemovesOnlyExpiredSessions() {
+        userSessionRepository.upsertForDevice(userId, "phone", "Phone", hash(), "t1",
+                Instant.now().minus(1, ChronoUnit.MINUTES));
+        userSessionRepository.upsertForDevice(userId, "laptop", "Laptop", hash(), "t2", expiresAt);
+
+        int removed;
+        do {
+            removed = userSessionRepository.deleteExpiredBatch(Instant.now(), 100);
+        } while (removed == 100);
+
+        assertThat(userSessionRepository.revokeAllByUserId(userId)).containsExactly("t2");
+    }
+
+    private String hash() {
+        return UUID.randomUUID().toString();
+    }
+}
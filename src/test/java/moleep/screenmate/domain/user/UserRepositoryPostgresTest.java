@@ -0,0 +1,44 @@
+package moleep.screenmate.domain.user;
+
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserRepositoryPostgresTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void upsertGoogleLoginCreatesUser() {
+        String googleId = "google-" + UUID.randomUUID();
+
+        User user = userRepository.upsertGoogleLogin(googleId, "mochi@example.com", "Mochi", "https://img/1");
+
+        assertThat(user.getId()).isNotNull();
+        assertThat(user.getGoogleId()).isEqualTo(googleId);
+        assertThat(user.getEmail()).isEqualTo("mochi@example.com");
+        assertThat(user.getLastLoginAt()).isNotNull();
+    }
+
+    @Test
+    void upsertGoogleLoginUpdatesExistingUserInPlace() {
+        String googleId = "google-" + UUID.randomUUID();
+        User created = userRepository.upsertGoogleLogin(googleId, "mochi@example.com", "Mochi", "https://img/1");
+
+        User updated = userRepository.upsertGoogleLogin(googleId, "mochi@new.example.com", "Mochi Cat", "https://img/2");
+
+        assertThat(updated.getId()).isEqualTo(created.getId());
+        assertThat(updated.getEmail()).isEqualTo("mochi@new.example.com");
+        assertThat(updated.getDisplayName()).isEqualTo("Mochi Cat");
+        assertThat(updated.getProfileImageUrl()).isEqualTo("https://img/2");
+        assertThat(userRepository.findByGoogleId(googleId))
+                .get()
+                .extracting(User::getEmail)
+                .isEqualTo("mochi@new.example.com");
+    }
+}
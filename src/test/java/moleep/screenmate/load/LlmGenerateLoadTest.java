@@ -0,0 +1,170 @@
+package moleep.screenmate.load;
+
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserRepository;
+import moleep.screenmate.security.jwt.JwtTokenProvider;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 로컬 OpenAI 스텁(응답 지연 STUB_LATENCY)을 상대로 /llm/generate에 동시 요청을 보내 p99 지연과 스레드 수를 잰다.
+ * 요청 스레드가 OpenAI 응답을 기다리며 묶이면 Tomcat 스레드 수(기본 200)만큼씩 처리되어 p99가 지연의 몇 배가 된다.
+ * 기본 test 태스크에서는 제외되며 ./gradlew loadTest로 실행한다.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LlmGenerateLoadTest {
+
+    private static final int CONCURRENCY = 1000;
+    private static final Duration STUB_LATENCY = Duration.ofSeconds(1);
+    private static final String COMPLETION = """
+            {"id":"chatcmpl-load","choices":[{"index":0,"message":{"role":"assistant",\
+            "content":"{\\"message\\":\\"안녕!\\",\\"actions\\":[],\\"emotion\\":\\"happy\\",\
+            \\"intimacyDelta\\":0,\\"screenDescription\\":null}"},"finish_reason":"stop"}],\
+            "usage":{"prompt_tokens":900,"completion_tokens":20,"total_tokens":920}}""";
+
+    private static final DisposableServer OPENAI_STUB = HttpServer.create()
+            .host("127.0.0.1")
+            .port(0)
+            .route(routes -> routes.post("/v1/chat/completions", (request, response) -> request.receive()
+                    .then()
+                    .then(Mono.delay(STUB_LATENCY))
+                    .then(response.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .sendString(Mono.just(COMPLETION))
+                            .then())))
+            .bindNow();
+
+    @Value("${local.server.port}")
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @DynamicPropertySource
+    static void openAiStub(DynamicPropertyRegistry registry) {
+        registry.add("openai.base-url", () -> "http://127.0.0.1:" + OPENAI_STUB.port());
+        registry.add("openai.warm-up-connections", () -> 0);
+        registry.add("openai.quota-enabled", () -> false);
+        registry.add("openai.max-connections", () -> CONCURRENCY);
+        registry.add("openai.pending-acquire-max-count", () -> CONCURRENCY);
+        registry.add("rate-limit.llm.requests-per-minute", () -> 100_000);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        OPENAI_STUB.disposeNow();
+    }
+
+    @Test
+    void concurrentGenerationsDoNotPinThreads() {
+        // 캐릭터 레인에서 줄 서지 않도록 요청마다 다른 캐릭터를 쓴다
+        List<Caller> callers = new ArrayList<>();
+        for (int i = 0; i < CONCURRENCY; i++) {
+            callers.add(caller(i));
+        }
+        WebClient client = client();
+
+        run(client, callers.subList(0, 50));
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        int baselineThreads = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+        long started = System.nanoTime();
+
+        List<Long> latencies = run(client, callers);
+
+        long elapsedMillis = Duration.ofNanos(System.nanoTime() - started).toMillis();
+        int peakThreads = threads.getPeakThreadCount();
+        Collections.sort(latencies);
+        long p50 = latencies.get(latencies.size() / 2);
+        long p99 = latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+        System.out.printf("LLM generate load: %d concurrent, stub latency %d ms, wall %d ms, p50 %d ms, p99 %d ms, "
+                        + "threads %d -> peak %d%n", CONCURRENCY, STUB_LATENCY.toMillis(), elapsedMillis, p50, p99,
+                baselineThreads, peakThreads);
+
+        assertThat(latencies).hasSize(CONCURRENCY);
+        // 요청당 스레드를 점유하면 200개씩 다섯 번에 나눠 처리되어 p99가 지연의 약 5배가 된다
+        assertThat(p99).isLessThan(STUB_LATENCY.toMillis() * 2);
+        assertThat(peakThreads - baselineThreads).isLessThan(CONCURRENCY / 4);
+    }
+
+    private List<Long> run(WebClient client, List<Caller> callers) {
+        return Flux.fromIterable(callers)
+                .flatMap(caller -> {
+                    long start = System.nanoTime();
+                    return client.post()
+                            .uri("/llm/generate")
+                            .header(HttpHeaders.AUTHORIZATION, "Bearer " + caller.accessToken())
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .bodyValue(Map.of("characterId", caller.characterId(), "userMessage", "요즘 너무 바빠"))
+                            .retrieve()
+                            .toBodilessEntity()
+                            .map(response -> Duration.ofNanos(System.nanoTime() - start).toMillis());
+                }, callers.size())
+                .collectList()
+                .block(Duration.ofMinutes(2));
+    }
+
+    private WebClient client() {
+        ConnectionProvider connections = ConnectionProvider.builder("load-test")
+                .maxConnections(CONCURRENCY)
+                .pendingAcquireMaxCount(-1)
+                .build();
+        return WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + port)
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connections)))
+                .build();
+    }
+
+    private Caller caller(int index) {
+        User user = userRepository.save(User.builder()
+                .googleId("load-" + UUID.randomUUID())
+                .email("load" + index + "@example.com")
+                .build());
+        Character character = characterRepository.save(Character.builder()
+                .user(user)
+                .name("Mochi " + index)
+                .species("cat")
+                .inviteCode(UUID.randomUUID().toString().substring(0, 12))
+                .build());
+        return new Caller(character.getId(), jwtTokenProvider.generateAccessToken(user.getId(), user.getEmail()));
+    }
+
+    private record Caller(UUID characterId, String accessToken) {
+    }
+}
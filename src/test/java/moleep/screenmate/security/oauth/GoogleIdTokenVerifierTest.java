@@ -0,0 +1,158 @@
+package moleep.screenmate.security.oauth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.sun.net.httpserver.HttpServer;
+import moleep.screenmate.config.GoogleOAuthProperties;
+import moleep.screenmate.exception.UnauthorizedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 로컬 JWKS(x509 인증서) 스텁 서버로 공개 키 캐시와 ID 토큰 검증을 확인한다
+ */
+class GoogleIdTokenVerifierTest {
+
+    private static final String CLIENT_ID = "screenmate-test.apps.googleusercontent.com";
+    private static final String KEY_1 = "signing-key-1";
+    private static final String KEY_2 = "signing-key-2";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger fetches = new AtomicInteger();
+    private volatile Map<String, String> servedCertificates;
+
+    private HttpServer server;
+    private GoogleIdTokenVerifier verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        servedCertificates = Map.of(KEY_1, certificate(KEY_1));
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/oauth2/v1/certs", exchange -> {
+            fetches.incrementAndGet();
+            byte[] body = objectMapper.writeValueAsBytes(servedCertificates);
+            exchange.getResponseHeaders().add("Content-Type", "application/json; charset=UTF-8");
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600, must-revalidate, no-transform");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        GoogleOAuthProperties properties = new GoogleOAuthProperties();
+        properties.setClientId(CLIENT_ID);
+        properties.setCertsUrl("http://127.0.0.1:" + server.getAddress().getPort() + "/oauth2/v1/certs");
+        verifier = new GoogleIdTokenVerifier(properties);
+        verifier.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void fetchesKeysOnceWithinMaxAge() throws Exception {
+        GoogleUserInfo userInfo = verifier.verify(token(KEY_1, CLIENT_ID));
+        verifier.verify(token(KEY_1, CLIENT_ID));
+        verifier.refreshPublicKeys();
+
+        assertThat(userInfo.getGoogleId()).isEqualTo("google-sub-1");
+        assertThat(userInfo.getEmail()).isEqualTo("mochi@example.com");
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    @Test
+    void refetchesKeysForUnknownKey() throws Exception {
+        verifier.verify(token(KEY_1, CLIENT_ID));
+        servedCertificates = Map.of(KEY_1, certificate(KEY_1), KEY_2, certificate(KEY_2));
+
+        GoogleUserInfo userInfo = verifier.verify(token(KEY_2, CLIENT_ID));
+
+        assertThat(userInfo.getGoogleId()).isEqualTo("google-sub-1");
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsBadSignatureAndThrottlesRefetch() throws Exception {
+        verifier.verify(token(KEY_1, CLIENT_ID));
+
+        assertInvalid(token(KEY_2, CLIENT_ID));
+        assertThat(fetches.get()).isEqualTo(2);
+
+        // 간격 안에서는 위조 토큰이 와도 다시 받지 않는다
+        assertInvalid(token(KEY_2, CLIENT_ID));
+        assertThat(fetches.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsTamperedPayload() throws Exception {
+        String[] signed = token(KEY_1, CLIENT_ID, "google-sub-1").split("\\.");
+        String[] forged = token(KEY_1, CLIENT_ID, "google-sub-2").split("\\.");
+
+        assertInvalid(signed[0] + "." + forged[1] + "." + signed[2]);
+    }
+
+    @Test
+    void rejectsWrongAudienceWithoutRefetch() throws Exception {
+        assertInvalid(token(KEY_1, "other-client.apps.googleusercontent.com"));
+
+        assertThat(fetches.get()).isEqualTo(1);
+    }
+
+    private void assertInvalid(String idToken) {
+        assertThatThrownBy(() -> verifier.verify(idToken))
+                .isInstanceOfSatisfying(UnauthorizedException.class,
+                        e -> assertThat(e.getErrorCode()).isEqualTo("INVALID_GOOGLE_TOKEN"));
+    }
+
+    private String token(String keyId, String audience) throws Exception {
+        return token(keyId, audience, "google-sub-1");
+    }
+
+    private String token(String keyId, String audience, String subject) throws Exception {
+        long now = System.currentTimeMillis() / 1000;
+        JsonWebSignature.Header header = new JsonWebSignature.Header()
+                .setAlgorithm("RS256")
+                .setKeyId(keyId);
+        GoogleIdToken.Payload payload = new GoogleIdToken.Payload()
+                .setEmail("mochi@example.com")
+                .setEmailVerified(true);
+        payload.setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject(subject)
+                .setIssuedAtTimeSeconds(now)
+                .setExpirationTimeSeconds(now + 3600);
+        return JsonWebSignature.signUsingRsaSha256(privateKey(keyId), GsonFactory.getDefaultInstance(),
+                header, payload);
+    }
+
+    private String certificate(String keyId) throws Exception {
+        return new ClassPathResource("google/" + keyId + ".crt").getContentAsString(StandardCharsets.US_ASCII);
+    }
+
+    private PrivateKey privateKey(String keyId) throws Exception {
+        String pem = new ClassPathResource("google/" + keyId + ".key").getContentAsString(StandardCharsets.US_ASCII)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return KeyFactory.getInstance("RSA").generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(pem)));
+    }
+}
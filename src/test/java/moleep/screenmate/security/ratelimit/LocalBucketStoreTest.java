@@ -0,0 +1,69 @@
+package moleep.screenmate.security.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.RateLimitProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalBucketStoreTest {
+
+    private LocalBucketStore bucketStore;
+
+    @BeforeEach
+    void setUp() {
+        bucketStore = new LocalBucketStore(new RateLimitProperties(), new SimpleMeterRegistry());
+        bucketStore.initCache();
+    }
+
+    @Test
+    void sharesBucketStatePerKey() {
+        BucketConfiguration configuration = configuration(2, Duration.ofMinutes(1));
+
+        assertThat(bucketStore.resolve("user:a", configuration).tryConsume(1)).isTrue();
+        assertThat(bucketStore.resolve("user:a", configuration).tryConsume(1)).isTrue();
+        assertThat(bucketStore.resolve("user:a", configuration).tryConsume(1)).isFalse();
+        assertThat(bucketStore.resolve("user:b", configuration).tryConsume(1)).isTrue();
+    }
+
+    @Test
+    void keepsDrainedBucketUntilRefilled() throws InterruptedException {
+        BucketConfiguration configuration = configuration(1, Duration.ofMillis(200));
+        Bucket drained = bucketStore.resolve("ip:1", configuration);
+        assertThat(drained.tryConsume(1)).isTrue();
+
+        assertThat(bucketStore.resolve("ip:1", configuration)).isSameAs(drained);
+
+        Thread.sleep(600);
+
+        Bucket refilled = bucketStore.resolve("ip:1", configuration);
+        assertThat(refilled).isNotSameAs(drained);
+        assertThat(refilled.getAvailableTokens()).isEqualTo(1);
+    }
+
+    @Test
+    void pinnedBucketsAreNotCached() {
+        BucketConfiguration configuration = configuration(5, Duration.ofMinutes(1));
+
+        Bucket first = bucketStore.resolvePinned("quota:tpm", configuration);
+        first.tryConsume(5);
+
+        assertThat(bucketStore.resolvePinned("quota:tpm", configuration)).isNotSameAs(first);
+        assertThat(bucketStore.resolve("quota:tpm", configuration).getAvailableTokens()).isEqualTo(5);
+    }
+
+    private BucketConfiguration configuration(long capacity, Duration period) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(capacity)
+                        .refillGreedy(capacity, period)
+                        .build())
+                .build();
+    }
+}
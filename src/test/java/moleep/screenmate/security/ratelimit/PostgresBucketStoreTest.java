@@ -0,0 +1,139 @@
+package moleep.screenmate.security.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.RateLimitProperties;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 DB를 보는 두 PostgresBucketStore를 두 인스턴스로 보고 버킷 공유, 동시 차감, 만료 행 정리를 검증한다
+ */
+class PostgresBucketStoreTest extends PostgresIntegrationTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private PostgresBucketStore first;
+    private PostgresBucketStore second;
+
+    @BeforeEach
+    void setUp() {
+        first = store();
+        second = store();
+    }
+
+    @Test
+    void instancesShareConsumption() {
+        String key = key();
+        BucketConfiguration configuration = configuration(3, Duration.ofMinutes(1));
+
+        assertThat(first.resolvePinned(key, configuration).tryConsume(2)).isTrue();
+        assertThat(second.resolvePinned(key, configuration).getAvailableTokens()).isEqualTo(1);
+        assertThat(second.resolvePinned(key, configuration).tryConsume(1)).isTrue();
+        assertThat(first.resolvePinned(key, configuration).tryConsume(1)).isFalse();
+    }
+
+    @Test
+    void concurrentConsumptionNeverExceedsCapacity() throws Exception {
+        String key = key();
+        int capacity = 20;
+        BucketConfiguration configuration = configuration(capacity, Duration.ofHours(1));
+        int threads = 8;
+        int attemptsPerThread = 10;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                PostgresBucketStore store = i % 2 == 0 ? first : second;
+                Callable<Integer> consumer = () -> {
+                    start.await();
+                    int consumed = 0;
+                    for (int attempt = 0; attempt < attemptsPerThread; attempt++) {
+                        if (store.resolvePinned(key, configuration).tryConsume(1)) {
+                            consumed++;
+                        }
+                    }
+                    return consumed;
+                };
+                results.add(executor.submit(consumer));
+            }
+            start.countDown();
+
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get();
+            }
+            // 행 잠금(select for update)으로 차감이 직렬화되어 정확히 용량만큼만 성공한다
+            assertThat(total).isEqualTo(capacity);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(first.resolvePinned(key, configuration).getAvailableTokens()).isZero();
+    }
+
+    @Test
+    void removesOnlyExpiredBuckets() {
+        String expired = key();
+        String live = key();
+        BucketConfiguration configuration = configuration(1, Duration.ofMinutes(1));
+        assertThat(first.resolvePinned(expired, configuration).tryConsume(1)).isTrue();
+        assertThat(first.resolvePinned(live, configuration).tryConsume(1)).isTrue();
+        assertThat(rows(expired)).isEqualTo(1);
+
+        // 버킷이 다시 가득 찬 뒤 유지 기간까지 지난 상태로 만든다
+        jdbcTemplate.update("UPDATE rate_limit_buckets SET expires_at = 0 WHERE id = ?", expired);
+
+        second.removeExpiredBuckets();
+
+        assertThat(rows(expired)).isZero();
+        assertThat(rows(live)).isEqualTo(1);
+        assertThat(second.resolvePinned(expired, configuration).getAvailableTokens()).isEqualTo(1);
+    }
+
+    private PostgresBucketStore store() {
+        PostgresBucketStore store = new PostgresBucketStore(dataSource, new RateLimitProperties(),
+                new SimpleMeterRegistry());
+        store.init();
+        return store;
+    }
+
+    private int rows(String key) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM rate_limit_buckets WHERE id = ?", Integer.class, key);
+    }
+
+    private String key() {
+        return "test:" + UUID.randomUUID();
+    }
+
+    private BucketConfiguration configuration(long capacity, Duration period) {
+        return BucketConfiguration.builder()
+                .addLimit(Bandwidth.builder()
+                        .capacity(capacity)
+                        .refillGreedy(capacity, period)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package moleep.screenmate.security.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.JacksonConfig;
+import moleep.screenmate.config.RateLimitProperties;
+import moleep.screenmate.security.jwt.BearerTokenResolver;
+import moleep.screenmate.security.jwt.JwtTokenProvider;
+import moleep.screenmate.security.jwt.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+    private static final String USER_ADDRESS = "203.0.113.10";
+
+    private SimpleMeterRegistry meterRegistry;
+    private BearerTokenResolver bearerTokenResolver;
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName("auth");
+        route.setPaths(List.of("/auth/**"));
+        route.setCapacity(2);
+        route.setPeriod(Duration.ofMinutes(1));
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setRoutes(List.of(route));
+
+        meterRegistry = new SimpleMeterRegistry();
+        LocalBucketStore bucketStore = new LocalBucketStore(properties, meterRegistry);
+        bucketStore.initCache();
+        bearerTokenResolver = mock(BearerTokenResolver.class);
+        when(bearerTokenResolver.resolve(any())).thenReturn(Optional.empty());
+
+        filter = new RateLimitFilter(properties, bucketStore, bearerTokenResolver,
+                new JacksonConfig().objectMapper(), meterRegistry);
+        filter.init();
+    }
+
+    @Test
+    void writesRateLimitHeadersOnAllowedRequests() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("/auth/google", USER_ADDRESS), response, chain);
+
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(response.getHeader("RateLimit-Limit")).isEqualTo("2");
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("1");
+        assertThat(Long.parseLong(response.getHeader("RateLimit-Reset"))).isPositive();
+    }
+
+    @Test
+    void rejectsWith429WhenBucketIsEmpty() throws Exception {
+        send("/auth/google", USER_ADDRESS);
+        send("/auth/google", USER_ADDRESS);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/auth/google", USER_ADDRESS), response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        assertThat(response.getStatus()).isEqualTo(429);
+        assertThat(response.getHeader("RateLimit-Remaining")).isEqualTo("0");
+        assertThat(Long.parseLong(response.getHeader("Retry-After"))).isBetween(1L, 60L);
+        assertThat(response.getContentAsString()).contains("RATE_LIMIT_EXCEEDED");
+        assertThat(meterRegistry.get("rate-limit.rejected").tag("route", "auth").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void anonymousCallersAreKeyedByRemoteAddress() throws Exception {
+        send("/auth/google", USER_ADDRESS);
+        send("/auth/google", USER_ADDRESS);
+
+        assertThat(send("/auth/google", "198.51.100.7").getStatus()).isEqualTo(200);
+        assertThat(send("/auth/google", USER_ADDRESS).getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void authenticatedCallersAreKeyedByUserAcrossAddresses() throws Exception {
+        when(bearerTokenResolver.resolve(any())).thenReturn(Optional.of(token(JwtTokenProvider.ACCESS_TOKEN_TYPE)));
+
+        send("/auth/refresh", "198.51.100.1");
+        send("/auth/refresh", "198.51.100.2");
+
+        assertThat(send("/auth/refresh", "198.51.100.3").getStatus()).isEqualTo(429);
+    }
+
+    @Test
+    void refreshTokensFallBackToAddressKey() throws Exception {
+        when(bearerTokenResolver.resolve(any())).thenReturn(Optional.of(token(JwtTokenProvider.REFRESH_TOKEN_TYPE)));
+
+        send("/auth/refresh", "198.51.100.1");
+        send("/auth/refresh", "198.51.100.1");
+
+        assertThat(send("/auth/refresh", "198.51.100.2").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void unmatchedPathsAreNotLimited() throws Exception {
+        MockHttpServletResponse response = send("/actuator/health", USER_ADDRESS);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader("RateLimit-Limit")).isNull();
+    }
+
+    private MockHttpServletResponse send(String path, String remoteAddress) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, remoteAddress), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String path, String remoteAddress) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(remoteAddress);
+        return request;
+    }
+
+    private VerifiedToken token(String type) {
+        return new VerifiedToken(UUID.fromString("00000000-0000-0000-0000-000000000001"), type,
+                "user@example.com", "device", "token-id", Instant.now().plusSeconds(600));
+    }
+}
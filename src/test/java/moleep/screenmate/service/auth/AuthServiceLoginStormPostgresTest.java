@@ -0,0 +1,85 @@
+package moleep.screenmate.service.auth;
+
+import moleep.screenmate.dto.auth.AuthResponse;
+import moleep.screenmate.dto.auth.GoogleLoginRequest;
+import moleep.screenmate.security.oauth.GoogleIdTokenVerifier;
+import moleep.screenmate.security.oauth.GoogleUserInfo;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * 같은 Google 계정으로 로그인이 한꺼번에 몰려도(앱 재시작 직후 여러 기기) 사용자 행이 하나만 생기고 예외가 나지 않아야 한다
+ */
+class AuthServiceLoginStormPostgresTest extends PostgresIntegrationTest {
+
+    private static final int LOGINS = 32;
+    private static final int DEVICES = 4;
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private GoogleIdTokenVerifier googleIdTokenVerifier;
+
+    @Test
+    void parallelLoginsForOneSubjectCreateOneUser() throws Exception {
+        String googleId = "google-" + UUID.randomUUID();
+        given(googleIdTokenVerifier.verify(anyString())).willReturn(GoogleUserInfo.builder()
+                .googleId(googleId)
+                .email("mochi@example.com")
+                .emailVerified(true)
+                .displayName("Mochi")
+                .build());
+
+        ExecutorService executor = Executors.newFixedThreadPool(LOGINS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<AuthResponse> responses = new ArrayList<>();
+        try {
+            List<Future<AuthResponse>> logins = new ArrayList<>();
+            for (int i = 0; i < LOGINS; i++) {
+                GoogleLoginRequest request = GoogleLoginRequest.builder()
+                        .idToken("id-token")
+                        .deviceId("device-" + i % DEVICES)
+                        .deviceName("MacBook Pro")
+                        .build();
+                logins.add(executor.submit(() -> {
+                    start.await();
+                    return authService.loginWithGoogle(request);
+                }));
+            }
+            start.countDown();
+
+            // 하나라도 예외가 나면 get()이 ExecutionException으로 테스트를 실패시킨다
+            for (Future<AuthResponse> login : logins) {
+                responses.add(login.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        UUID userId = responses.get(0).getUser().getId();
+        assertThat(responses).allSatisfy(response -> assertThat(response.getUser().getId()).isEqualTo(userId));
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE google_id = ?",
+                Integer.class, googleId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM user_sessions WHERE user_id = ?",
+                Integer.class, userId)).isEqualTo(DEVICES);
+    }
+}
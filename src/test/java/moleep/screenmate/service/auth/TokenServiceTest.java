@@ -0,0 +1,128 @@
+package moleep.screenmate.service.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.SessionProperties;
+import moleep.screenmate.domain.session.UserSessionRepository;
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.exception.InvalidTokenException;
+import moleep.screenmate.security.jwt.JwtTokenProvider;
+import moleep.screenmate.security.jwt.VerifiedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenServiceTest {
+
+    private static final UUID USER_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final String DEVICE_ID = "device-1";
+    private static final String RAW_TOKEN = "refresh-token";
+    private static final String NEW_RAW_TOKEN = "rotated-refresh-token";
+    private static final Instant EXPIRES_AT = Instant.parse("2026-02-01T00:00:00Z");
+
+    private UserSessionRepository userSessionRepository;
+    private JwtTokenProvider jwtTokenProvider;
+    private TokenService tokenService;
+
+    @BeforeEach
+    void setUp() {
+        userSessionRepository = mock(UserSessionRepository.class);
+        jwtTokenProvider = mock(JwtTokenProvider.class);
+        when(jwtTokenProvider.getRefreshTokenExpiry()).thenReturn(EXPIRES_AT);
+
+        tokenService = new TokenService(userSessionRepository, jwtTokenProvider, new SessionProperties(),
+                new SimpleMeterRegistry());
+        tokenService.initMetrics();
+    }
+
+    @Test
+    void issuesSessionForDeviceWithHashedToken() {
+        when(jwtTokenProvider.generateRefreshToken(eq(USER_ID), eq(DEVICE_ID), anyString())).thenReturn(RAW_TOKEN);
+        User user = User.builder().id(USER_ID).email("owner@example.com").build();
+
+        String issued = tokenService.createOrUpdateRefreshToken(user, DEVICE_ID, "Phone");
+
+        ArgumentCaptor<String> tokenHash = ArgumentCaptor.forClass(String.class);
+        verify(userSessionRepository).upsertForDevice(eq(USER_ID), eq(DEVICE_ID), eq("Phone"), tokenHash.capture(),
+                anyString(), eq(EXPIRES_AT));
+        assertThat(issued).isEqualTo(RAW_TOKEN);
+        assertThat(tokenHash.getValue()).isNotEqualTo(RAW_TOKEN);
+    }
+
+    @Test
+    void rotatesSessionInOneConditionalUpdate() {
+        when(jwtTokenProvider.verify(RAW_TOKEN)).thenReturn(refreshToken());
+        when(jwtTokenProvider.generateRefreshToken(eq(USER_ID), eq(DEVICE_ID), anyString())).thenReturn(NEW_RAW_TOKEN);
+        when(userSessionRepository.rotate(anyString(), eq(DEVICE_ID), anyString(), anyString(), eq(EXPIRES_AT)))
+                .thenReturn(Optional.of(USER_ID));
+
+        TokenService.RotatedToken rotated = tokenService.rotateRefreshToken(RAW_TOKEN, DEVICE_ID);
+
+        ArgumentCaptor<String> oldHash = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> newHash = ArgumentCaptor.forClass(String.class);
+        verify(userSessionRepository).rotate(oldHash.capture(), eq(DEVICE_ID), newHash.capture(), anyString(),
+                eq(EXPIRES_AT));
+        assertThat(rotated.userId()).isEqualTo(USER_ID);
+        assertThat(rotated.refreshToken()).isEqualTo(NEW_RAW_TOKEN);
+        assertThat(oldHash.getValue()).isNotEqualTo(newHash.getValue());
+    }
+
+    @Test
+    void rejectsRevokedExpiredOrReusedToken() {
+        when(jwtTokenProvider.verify(RAW_TOKEN)).thenReturn(refreshToken());
+        when(jwtTokenProvider.generateRefreshToken(eq(USER_ID), eq(DEVICE_ID), anyString())).thenReturn(NEW_RAW_TOKEN);
+        when(userSessionRepository.rotate(anyString(), anyString(), anyString(), anyString(), any()))
+                .thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> tokenService.rotateRefreshToken(RAW_TOKEN, DEVICE_ID))
+                .isInstanceOf(InvalidTokenException.class);
+    }
+
+    @Test
+    void rejectsAccessTokenWithoutTouchingSessions() {
+        when(jwtTokenProvider.verify(RAW_TOKEN)).thenReturn(new VerifiedToken(USER_ID,
+                JwtTokenProvider.ACCESS_TOKEN_TYPE, "owner@example.com", null, null, EXPIRES_AT));
+
+        assertThatThrownBy(() -> tokenService.rotateRefreshToken(RAW_TOKEN, DEVICE_ID))
+                .isInstanceOf(InvalidTokenException.class);
+        verify(userSessionRepository, never()).rotate(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    void revokesByHashOfPresentedToken() {
+        when(userSessionRepository.revokeByTokenHash(anyString())).thenReturn(Optional.of("token-id"));
+
+        tokenService.revokeRefreshTokenByRawToken(RAW_TOKEN);
+
+        ArgumentCaptor<String> tokenHash = ArgumentCaptor.forClass(String.class);
+        verify(userSessionRepository).revokeByTokenHash(tokenHash.capture());
+        assertThat(tokenHash.getValue()).isNotEqualTo(RAW_TOKEN);
+    }
+
+    @Test
+    void revokesAllSessionsOfUser() {
+        when(userSessionRepository.revokeAllByUserId(USER_ID)).thenReturn(List.of("a", "b"));
+
+        tokenService.revokeAllSessions(USER_ID);
+
+        verify(userSessionRepository).revokeAllByUserId(USER_ID);
+    }
+
+    private VerifiedToken refreshToken() {
+        return new VerifiedToken(USER_ID, JwtTokenProvider.REFRESH_TOKEN_TYPE, null, DEVICE_ID, "token-id", EXPIRES_AT);
+    }
+}
@@ -0,0 +1,142 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.CharacterLaneProperties;
+import moleep.screenmate.exception.RateLimitExceededException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CharacterLanesTest {
+
+    private CharacterLaneProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private CharacterLanes lanes;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CharacterLaneProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        lanes = new CharacterLanes(properties, meterRegistry);
+        lanes.initMetrics();
+    }
+
+    @Test
+    void grantsLeasesInArrivalOrder() {
+        UUID characterId = UUID.randomUUID();
+        List<String> order = new ArrayList<>();
+
+        CharacterLanes.Lease first = lanes.acquire(characterId).block();
+        lanes.acquire(characterId).subscribe(lease -> {
+            order.add("second");
+            lease.release();
+        });
+        lanes.acquire(characterId).subscribe(lease -> {
+            order.add("third");
+            lease.release();
+        });
+
+        assertThat(order).isEmpty();
+        first.release();
+        assertThat(order).containsExactly("second", "third");
+        assertThat(meterRegistry.get("llm.lane.active").gauge().value()).isZero();
+    }
+
+    @Test
+    void otherCharactersDoNotWait() {
+        lanes.acquire(UUID.randomUUID()).block();
+
+        StepVerifier.create(lanes.acquire(UUID.randomUUID()))
+                .expectNextCount(1)
+                .verifyComplete();
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        properties.setMaxQueuedPerCharacter(1);
+        UUID characterId = UUID.randomUUID();
+        lanes.acquire(characterId).block();
+        lanes.acquire(characterId).subscribe();
+
+        StepVerifier.create(lanes.acquire(characterId))
+                .expectError(RateLimitExceededException.class)
+                .verify();
+        assertThat(meterRegistry.get("llm.lane.requests").tag("result", "rejected").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void cancelledWaiterIsSkipped() {
+        UUID characterId = UUID.randomUUID();
+        AtomicInteger granted = new AtomicInteger();
+
+        CharacterLanes.Lease first = lanes.acquire(characterId).block();
+        Disposable cancelled = lanes.acquire(characterId).subscribe(lease -> granted.incrementAndGet());
+        lanes.acquire(characterId).subscribe(lease -> granted.addAndGet(10));
+
+        cancelled.dispose();
+        first.release();
+
+        assertThat(granted).hasValue(10);
+    }
+
+    @Test
+    void releaseIsIdempotent() {
+        UUID characterId = UUID.randomUUID();
+        AtomicInteger granted = new AtomicInteger();
+
+        CharacterLanes.Lease first = lanes.acquire(characterId).block();
+        lanes.acquire(characterId).subscribe(lease -> granted.incrementAndGet());
+        lanes.acquire(characterId).subscribe(lease -> granted.incrementAndGet());
+
+        first.release();
+        first.release();
+
+        assertThat(granted).hasValue(1);
+    }
+
+    @Test
+    void singleFlightSharesInFlightResultForSameKey() {
+        Sinks.One<String> result = Sinks.one();
+        AtomicInteger executions = new AtomicInteger();
+
+        Mono<String> first = lanes.singleFlight("key", () -> {
+            executions.incrementAndGet();
+            return result.asMono();
+        });
+        Mono<String> second = lanes.singleFlight("key", () -> {
+            executions.incrementAndGet();
+            return result.asMono();
+        });
+
+        List<String> received = new ArrayList<>();
+        first.subscribe(received::add);
+        second.subscribe(received::add);
+        result.tryEmitValue("done");
+
+        assertThat(received).containsExactly("done", "done");
+        assertThat(executions).hasValue(1);
+        assertThat(meterRegistry.get("llm.lane.requests").tag("result", "collapsed").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void singleFlightRunsAgainAfterCompletion() {
+        AtomicInteger executions = new AtomicInteger();
+
+        lanes.singleFlight("key", () -> Mono.fromCallable(executions::incrementAndGet)).block();
+        lanes.singleFlight("key", () -> Mono.fromCallable(executions::incrementAndGet)).block();
+
+        assertThat(executions).hasValue(2);
+    }
+}
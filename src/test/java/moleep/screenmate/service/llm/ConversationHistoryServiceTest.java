@@ -0,0 +1,123 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.ConversationCacheProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.conversation.CharacterConversation;
+import moleep.screenmate.domain.conversation.CharacterConversationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConversationHistoryServiceTest {
+
+    private static final UUID CHARACTER_ID = UUID.fromString("00000000-0000-0000-0000-000000000010");
+
+    private CharacterConversationRepository conversationRepository;
+    private CharacterRepository characterRepository;
+    private ConversationHistoryService historyService;
+
+    // 최신순(findTop20 ... Desc) 저장 상태
+    private final List<CharacterConversation> persisted = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        conversationRepository = mock(CharacterConversationRepository.class);
+        characterRepository = mock(CharacterRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(conversationRepository.findTop20ByCharacterIdOrderByCreatedAtDesc(CHARACTER_ID))
+                .thenAnswer(invocation -> List.copyOf(persisted));
+        when(conversationRepository.save(any(CharacterConversation.class))).thenAnswer(invocation -> {
+            CharacterConversation conversation = invocation.getArgument(0);
+            conversation.setId(UUID.randomUUID());
+            persisted.addFirst(conversation);
+            return conversation;
+        });
+
+        historyService = new ConversationHistoryService(conversationRepository, characterRepository,
+                transactionTemplate, new ConversationCacheProperties(), new SimpleMeterRegistry());
+        historyService.initCache();
+    }
+
+    @Test
+    void reusesCachedWindowWhileCounterMatches() {
+        persistedTurn("hello");
+
+        historyService.recentTurns(character(1));
+        List<ConversationTurn> turns = historyService.recentTurns(character(1));
+
+        assertThat(turns).extracting(ConversationTurn::content).containsExactly("hello");
+        verify(conversationRepository, times(1)).findTop20ByCharacterIdOrderByCreatedAtDesc(CHARACTER_ID);
+    }
+
+    @Test
+    void reloadsWindowWhenAnotherInstancePersistedTurns() {
+        persistedTurn("hello");
+        historyService.recentTurns(character(1));
+
+        // 다른 인스턴스가 같은 캐릭터의 턴을 저장
+        persistedTurn("from elsewhere");
+        List<ConversationTurn> turns = historyService.recentTurns(character(2));
+
+        assertThat(turns).extracting(ConversationTurn::content).containsExactly("hello", "from elsewhere");
+        verify(conversationRepository, times(2)).findTop20ByCharacterIdOrderByCreatedAtDesc(CHARACTER_ID);
+    }
+
+    @Test
+    void appendsOwnTurnsWithoutReloading() {
+        historyService.recentTurns(character(0));
+        when(characterRepository.incrementConversationTurns(eq(CHARACTER_ID), anyInt())).thenReturn(2L);
+
+        historyService.appendTurns(character(0), "hi", "hello!");
+        List<ConversationTurn> turns = historyService.recentTurns(character(2));
+
+        assertThat(turns).extracting(ConversationTurn::content).containsExactly("hi", "hello!");
+        verify(conversationRepository, times(1)).findTop20ByCharacterIdOrderByCreatedAtDesc(CHARACTER_ID);
+    }
+
+    @Test
+    void dropsWindowWhenOwnWriteFollowsForeignTurns() {
+        historyService.recentTurns(character(0));
+        persistedTurn("from elsewhere");
+        when(characterRepository.incrementConversationTurns(eq(CHARACTER_ID), anyInt())).thenReturn(3L);
+
+        historyService.appendTurns(character(1), "hi", "hello!");
+        List<ConversationTurn> turns = historyService.recentTurns(character(3));
+
+        assertThat(turns).extracting(ConversationTurn::content).containsExactly("from elsewhere", "hi", "hello!");
+        verify(conversationRepository, times(2)).findTop20ByCharacterIdOrderByCreatedAtDesc(CHARACTER_ID);
+    }
+
+    private void persistedTurn(String content) {
+        persisted.addFirst(CharacterConversation.builder()
+                .id(UUID.randomUUID())
+                .role(CharacterConversation.Role.USER)
+                .content(content)
+                .build());
+    }
+
+    private Character character(long conversationTurns) {
+        return Character.builder()
+                .id(CHARACTER_ID)
+                .name("Mochi")
+                .conversationTurns(conversationTurns)
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package moleep.screenmate.service.llm;
+
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.character.CharacterRepository;
+import moleep.screenmate.domain.user.User;
+import moleep.screenmate.domain.user.UserRepository;
+import moleep.screenmate.support.PostgresIntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationPartitionMaintainerPostgresTest extends PostgresIntegrationTest {
+
+    private static final String SCRIPT = "db/optional/partition_character_conversations.sql";
+
+    @Autowired
+    private ConversationPartitionMaintainer partitionMaintainer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CharacterRepository characterRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private UUID characterId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        if (!exists(ConversationPartitionMaintainer.DEFAULT_PARTITION)) {
+            jdbcTemplate.execute(new ClassPathResource(SCRIPT).getContentAsString(StandardCharsets.UTF_8));
+        }
+        characterId = character().getId();
+    }
+
+    @Test
+    void defaultPartitionAcceptsRowsBeyondCreatedPartitions() {
+        insertTurn("2099-01-15");
+
+        assertThat(partitionOf("2099-01-15")).isEqualTo(ConversationPartitionMaintainer.DEFAULT_PARTITION);
+    }
+
+    @Test
+    void createsMissingMonthAndMovesRowsOutOfDefault() {
+        LocalDate lastMonth = currentMonth().plusMonths(3);
+        String partition = partitionName(lastMonth);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+        String day = lastMonth.plusDays(9).toString();
+        insertTurn(day);
+        assertThat(partitionOf(day)).isEqualTo(ConversationPartitionMaintainer.DEFAULT_PARTITION);
+
+        int created = partitionMaintainer.createUpcomingPartitions();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(partitionOf(day)).isEqualTo(partition);
+        assertThat(partitionMaintainer.createUpcomingPartitions()).isZero();
+    }
+
+    @Test
+    void createsPartitionsAheadOfCurrentMonth() {
+        for (int i = 0; i <= 3; i++) {
+            assertThat(exists(partitionName(currentMonth().plusMonths(i)))).isTrue();
+        }
+    }
+
+    private void insertTurn(String day) {
+        jdbcTemplate.update("""
+                INSERT INTO character_conversations (character_id, role, content, created_at)
+                VALUES (?, 'USER', 'hi', ?::date + TIME '12:00')
+                """, characterId, day);
+    }
+
+    private String partitionOf(String day) {
+        return jdbcTemplate.queryForObject("""
+                SELECT tableoid::regclass::text FROM character_conversations
+                WHERE character_id = ? AND created_at = ?::date + TIME '12:00'
+                """, String.class, characterId, day);
+    }
+
+    private LocalDate currentMonth() {
+        return jdbcTemplate.queryForObject("SELECT date_trunc('month', CURRENT_TIMESTAMP)::date", LocalDate.class);
+    }
+
+    private String partitionName(LocalDate month) {
+        return ConversationPartitionMaintainer.TABLE + "_" + month.format(DateTimeFormatter.ofPattern("yyyyMM"));
+    }
+
+    private boolean exists(String relation) {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, relation));
+    }
+
+    private Character character() {
+        User user = userRepository.save(User.builder()
+                .googleId("google-" + UUID.randomUUID())
+                .email("mochi@example.com")
+                .build());
+        return characterRepository.save(Character.builder()
+                .user(user)
+                .name("Mochi")
+                .species("cat")
+                .inviteCode(UUID.randomUUID().toString().substring(0, 12))
+                .build());
+    }
+}
@@ -0,0 +1,84 @@
+package moleep.screenmate.service.llm;
+
+import moleep.screenmate.domain.conversation.CharacterConversation;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConversationWindowTest {
+
+    @Test
+    void keepsMostRecentTurnsOldestFirst() {
+        ConversationWindow window = new ConversationWindow(3, List.of(turn("1"), turn("2")), 2);
+
+        window.append(turn("3"));
+        window.append(turn("4"));
+
+        assertThat(window.snapshot()).extracting(ConversationTurn::content).containsExactly("2", "3", "4");
+    }
+
+    @Test
+    void ignoresTurnAlreadyInWindow() {
+        ConversationTurn loaded = turn("hello");
+        ConversationWindow window = new ConversationWindow(3, List.of(loaded), 1);
+
+        window.append(loaded);
+
+        assertThat(window.snapshot()).containsExactly(loaded);
+    }
+
+    @Test
+    void estimatedBytesFollowsRetainedContent() {
+        ConversationWindow window = new ConversationWindow(2, List.of(), 0);
+        int empty = window.estimatedBytes();
+
+        window.append(turn("x".repeat(1000)));
+        int oneLarge = window.estimatedBytes();
+        window.append(turn("y"));
+        window.append(turn("z"));
+        int twoSmall = window.estimatedBytes();
+
+        assertThat(oneLarge).isGreaterThan(empty + 2000);
+        assertThat(twoSmall).isLessThan(oneLarge);
+        assertThat(twoSmall).isEqualTo(new ConversationWindow(2, List.of(turn("y"), turn("z")), 2).estimatedBytes());
+    }
+
+    @Test
+    void estimatedBytesIsBoundedByCapacity() {
+        ConversationWindow window = new ConversationWindow(ConversationHistoryService.CONVERSATION_WINDOW, List.of(), 0);
+        IntStream.range(0, 100).forEach(i -> window.append(turn("turn-" + i)));
+
+        assertThat(window.snapshot()).hasSize(ConversationHistoryService.CONVERSATION_WINDOW);
+        assertThat(window.snapshot().getLast().content()).isEqualTo("turn-99");
+        assertThat(window.estimatedBytes()).isEqualTo(new ConversationWindow(ConversationHistoryService.CONVERSATION_WINDOW,
+                window.snapshot(), 100).estimatedBytes());
+    }
+
+    @Test
+    void appendsWrittenTurnsWhenCounterIsContiguous() {
+        ConversationWindow window = new ConversationWindow(20, List.of(turn("1")), 1);
+
+        assertThat(window.appendWritten(List.of(turn("2"), turn("3")), 3)).isTrue();
+
+        assertThat(window.snapshot()).extracting(ConversationTurn::content).containsExactly("1", "2", "3");
+        assertThat(window.isBehind(3)).isFalse();
+        assertThat(window.isBehind(4)).isTrue();
+    }
+
+    @Test
+    void refusesWrittenTurnsAfterGapFromAnotherInstance() {
+        ConversationWindow window = new ConversationWindow(20, List.of(turn("1")), 1);
+
+        assertThat(window.appendWritten(List.of(turn("4"), turn("5")), 5)).isFalse();
+
+        assertThat(window.snapshot()).extracting(ConversationTurn::content).containsExactly("1");
+    }
+
+    private ConversationTurn turn(String content) {
+        return new ConversationTurn(UUID.randomUUID(), CharacterConversation.Role.USER, content);
+    }
+}
@@ -0,0 +1,31 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageDataUrlTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 2, 3, 3071, 3072, 3073, 10_000})
+    void serializesAsBase64DataUrl(int size) throws Exception {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        ImageDataUrl image = new ImageDataUrl("image/jpeg", bytes);
+
+        String json = objectMapper.writeValueAsString(Map.of("url", image));
+        Map<?, ?> decoded = objectMapper.readValue(json, Map.class);
+
+        String expected = "data:image/jpeg;base64," + Base64.getEncoder().encodeToString(bytes);
+        assertThat(decoded.get("url")).isEqualTo(expected);
+        assertThat(image.encodedLength()).isEqualTo(expected.length());
+    }
+}
@@ -0,0 +1,235 @@
+package moleep.screenmate.service.llm;
+
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.GoogleOAuthProperties;
+import moleep.screenmate.config.JacksonConfig;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.config.WebClientConfig;
+import moleep.screenmate.exception.ServiceUnavailableException;
+import moleep.screenmate.security.ratelimit.BucketStore;
+import moleep.screenmate.validation.ActionWhitelistValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 지연과 5xx를 주입하는 ExchangeFunction 스텁으로 지연 예산, 서킷 브레이커, 헤지 요청을 검증한다.
+ * 지연은 가상 시간으로 진행한다
+ */
+class OpenAiClientTest {
+
+    private static final String COMPLETION = """
+            {"choices":[{"message":{"content":"{\\"message\\":\\"hi\\"}"}}],\
+            "usage":{"prompt_tokens":10,"completion_tokens":5,"total_tokens":15}}""";
+    private static final Map<String, Object> REQUEST = Map.of("model", "gpt-4o-mini", "messages", List.of());
+
+    private OpenAiProperties properties;
+    private StubOpenAi stub;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenAiProperties();
+        properties.setQuotaEnabled(false);
+        properties.setRequestTimeout(Duration.ofSeconds(2));
+        properties.setCircuitWindowSize(4);
+        properties.setCircuitMinimumCalls(4);
+        properties.setCircuitOpenDuration(Duration.ofMinutes(1));
+        properties.setHedgeDelay(Duration.ofSeconds(1));
+        stub = new StubOpenAi();
+    }
+
+    @Test
+    void latencyBudgetCancelsSlowCall() {
+        stub.respond(Duration.ofSeconds(10), HttpStatus.OK);
+        OpenAiClient client = client();
+
+        StepVerifier.withVirtualTime(() -> client.chatCompletion(REQUEST))
+                .thenAwait(Duration.ofMillis(1999))
+                .then(() -> assertThat(stub.cancelled.get()).isZero())
+                .thenAwait(Duration.ofMillis(1))
+                .expectErrorSatisfies(e -> assertThat(e)
+                        .isInstanceOfSatisfying(ServiceUnavailableException.class,
+                                unavailable -> assertThat(unavailable.getErrorCode()).isEqualTo("OPENAI_TIMEOUT")))
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(stub.cancelled.get()).isEqualTo(1);
+    }
+
+    @Test
+    void breakerOpensOnServerErrorsAndRejectsWithoutSending() {
+        stub.respond(Duration.ZERO, HttpStatus.SERVICE_UNAVAILABLE);
+        OpenAiClient client = client();
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(client.chatCompletion(REQUEST))
+                    .expectErrorSatisfies(e -> assertErrorCode(e, "OPENAI_SERVER_ERROR"))
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        StepVerifier.create(client.chatCompletion(REQUEST))
+                .expectErrorSatisfies(e -> assertErrorCode(e, "OPENAI_UNAVAILABLE"))
+                .verify(Duration.ofSeconds(5));
+        assertThat(stub.requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    void breakerOpensOnTimeouts() {
+        stub.respond(Duration.ofSeconds(10), HttpStatus.OK);
+        OpenAiClient client = client();
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.withVirtualTime(() -> client.chatCompletion(REQUEST))
+                    .thenAwait(properties.getRequestTimeout())
+                    .expectErrorSatisfies(e -> assertErrorCode(e, "OPENAI_TIMEOUT"))
+                    .verify(Duration.ofSeconds(5));
+        }
+
+        StepVerifier.create(client.chatCompletion(REQUEST))
+                .expectErrorSatisfies(e -> assertErrorCode(e, "OPENAI_UNAVAILABLE"))
+                .verify(Duration.ofSeconds(5));
+        assertThat(stub.requests.get()).isEqualTo(4);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenBreaker() {
+        stub.respond(Duration.ZERO, HttpStatus.BAD_REQUEST);
+        OpenAiClient client = client();
+
+        for (int i = 0; i < 6; i++) {
+            StepVerifier.create(client.chatCompletion(REQUEST))
+                    .expectErrorSatisfies(e -> assertErrorCode(e, "OPENAI_API_ERROR"))
+                    .verify(Duration.ofSeconds(5));
+        }
+        assertThat(stub.requests.get()).isEqualTo(6);
+    }
+
+    @Test
+    void hedgeIsSentAfterDelayAndLoserIsCancelled() {
+        properties.setHedgeEnabled(true);
+        properties.setRequestTimeout(Duration.ofSeconds(30));
+        stub.respond(Duration.ofSeconds(10), HttpStatus.OK);
+        stub.respond(Duration.ofMillis(200), HttpStatus.OK);
+        OpenAiClient client = client();
+
+        StepVerifier.withVirtualTime(() -> client.idempotentChatCompletion(REQUEST))
+                .then(() -> assertThat(stub.requests.get()).isEqualTo(1))
+                .thenAwait(Duration.ofMillis(999))
+                .then(() -> assertThat(stub.requests.get()).isEqualTo(1))
+                .thenAwait(Duration.ofMillis(1))
+                .then(() -> assertThat(stub.requests.get()).isEqualTo(2))
+                .thenAwait(Duration.ofMillis(200))
+                .assertNext(completion -> assertThat(completion.usage().totalTokens()).isEqualTo(15))
+                .verifyComplete();
+
+        assertThat(stub.cancelled.get()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgeIsNotSentWhenPrimaryAnswersInTime() {
+        properties.setHedgeEnabled(true);
+        stub.respond(Duration.ofMillis(500), HttpStatus.OK);
+        OpenAiClient client = client();
+
+        StepVerifier.withVirtualTime(() -> client.idempotentChatCompletion(REQUEST))
+                .thenAwait(Duration.ofMillis(500))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(stub.requests.get()).isEqualTo(1);
+        assertThat(stub.cancelled.get()).isZero();
+    }
+
+    @Test
+    void interactiveCallsAreNeverHedged() {
+        properties.setHedgeEnabled(true);
+        properties.setRequestTimeout(Duration.ofSeconds(30));
+        stub.respond(Duration.ofSeconds(10), HttpStatus.OK);
+        OpenAiClient client = client();
+
+        StepVerifier.withVirtualTime(() -> client.chatCompletion(REQUEST))
+                .thenAwait(Duration.ofSeconds(5))
+                .then(() -> assertThat(stub.requests.get()).isEqualTo(1))
+                .thenAwait(Duration.ofSeconds(5))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(stub.requests.get()).isEqualTo(1);
+    }
+
+    private void assertErrorCode(Throwable e, String errorCode) {
+        assertThat(e).isInstanceOfSatisfying(ServiceUnavailableException.class,
+                unavailable -> assertThat(unavailable.getErrorCode()).isEqualTo(errorCode));
+    }
+
+    private OpenAiClient client() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        CircuitBreaker circuitBreaker = new WebClientConfig(properties, new GoogleOAuthProperties())
+                .openAiCircuitBreaker(meterRegistry);
+        // quota-enabled=false라 예약/정산은 버킷을 건드리지 않는다
+        OpenAiQuotaGovernor quotaGovernor = new OpenAiQuotaGovernor(mock(BucketStore.class), properties,
+                new TokenCounter(properties), Schedulers.immediate(), meterRegistry);
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://openai.test")
+                .exchangeFunction(stub)
+                .build();
+        return new OpenAiClient(webClient, properties, circuitBreaker, new JacksonConfig().objectMapper(),
+                quotaGovernor, new OpenAiResponseDecoder(new JacksonConfig().objectMapper(),
+                new ActionWhitelistValidator(), meterRegistry));
+    }
+
+    /**
+     * 요청 순서대로 지정한 지연과 상태로 응답한다. 지정한 응답이 다 떨어지면 마지막 응답을 반복한다
+     */
+    private static final class StubOpenAi implements ExchangeFunction {
+
+        private record Reply(Duration delay, HttpStatus status) {
+        }
+
+        private final List<Reply> replies = new ArrayList<>();
+        private final AtomicInteger requests = new AtomicInteger();
+        private final AtomicInteger cancelled = new AtomicInteger();
+
+        void respond(Duration delay, HttpStatus status) {
+            replies.add(new Reply(delay, status));
+        }
+
+        @Override
+        public Mono<ClientResponse> exchange(ClientRequest request) {
+            int index = requests.getAndIncrement();
+            Reply reply = replies.get(Math.min(index, replies.size() - 1));
+            AtomicBoolean replied = new AtomicBoolean();
+            return Mono.delay(reply.delay())
+                    .doOnNext(tick -> replied.set(true))
+                    .map(tick -> ClientResponse.create(reply.status())
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body(reply.status().is2xxSuccessful() ? COMPLETION : "{\"error\":{}}")
+                            .build())
+                    // 응답하기 전에 끊긴 요청만 센다
+                    .doOnCancel(() -> {
+                        if (!replied.get()) {
+                            cancelled.incrementAndGet();
+                        }
+                    });
+        }
+    }
+}
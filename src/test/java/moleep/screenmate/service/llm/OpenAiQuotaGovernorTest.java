@@ -0,0 +1,182 @@
+package moleep.screenmate.service.llm;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.exception.ServiceUnavailableException;
+import moleep.screenmate.security.ratelimit.BucketStore;
+import moleep.screenmate.service.llm.OpenAiQuotaGovernor.Priority;
+import moleep.screenmate.service.llm.OpenAiQuotaGovernor.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.SignalType;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiQuotaGovernorTest {
+
+    private static final long TOKENS_PER_MINUTE = 10_000;
+    private static final long REQUESTS_PER_MINUTE = 100;
+    // 3(priming) + 4(message) + 1("hi") + 100(max_tokens)
+    private static final long ESTIMATED = 108;
+    // 짧은 테스트 동안 greedy refill로 들어올 수 있는 토큰 수
+    private static final long REFILL_SLACK = 20;
+
+    private final Map<String, Bucket> sharedBuckets = new HashMap<>();
+    private OpenAiProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private OpenAiQuotaGovernor governor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OpenAiProperties();
+        properties.setQuotaTokensPerMinute(TOKENS_PER_MINUTE);
+        properties.setQuotaRequestsPerMinute(REQUESTS_PER_MINUTE);
+        properties.setQuotaLeaseFraction(0.1);
+        properties.setQuotaInteractiveMaxWait(Duration.ZERO);
+        properties.setQuotaBackgroundMaxWait(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+
+        governor = new OpenAiQuotaGovernor(new SharedBucketStore(), properties, new TokenCounter(properties),
+                Schedulers.immediate(), meterRegistry);
+        governor.init();
+    }
+
+    @Test
+    void interactiveCallsShareOneLeaseFromSharedBucket() {
+        reserve(Priority.INTERACTIVE);
+        reserve(Priority.INTERACTIVE);
+
+        assertThat(leases("tokens")).isEqualTo(1);
+        assertThat(sharedTokens()).isBetween(9_000L, 9_000L + REFILL_SLACK);
+        assertThat(sharedRequests()).isBetween(90L, 91L);
+    }
+
+    @Test
+    void unusedLeaseIsReturnedOnFlush() {
+        reserve(Priority.INTERACTIVE);
+
+        governor.returnUnusedLeases();
+
+        assertThat(sharedTokens()).isBetween(TOKENS_PER_MINUTE - ESTIMATED, TOKENS_PER_MINUTE - ESTIMATED + REFILL_SLACK);
+        assertThat(sharedRequests()).isBetween(REQUESTS_PER_MINUTE - 1, REQUESTS_PER_MINUTE);
+    }
+
+    @Test
+    void cancelledCallReturnsTokensButKeepsRequest() {
+        Reservation reservation = reserve(Priority.INTERACTIVE);
+
+        governor.finish(reservation, true, SignalType.CANCEL, null);
+        governor.returnUnusedLeases();
+
+        assertThat(sharedTokens()).isGreaterThanOrEqualTo(TOKENS_PER_MINUTE - REFILL_SLACK);
+        assertThat(sharedRequests()).isBetween(REQUESTS_PER_MINUTE - 1, REQUESTS_PER_MINUTE);
+    }
+
+    @Test
+    void unsentCallReleasesWholeReservation() {
+        Reservation reservation = reserve(Priority.INTERACTIVE);
+
+        governor.finish(reservation, false, SignalType.ON_ERROR, null);
+        governor.returnUnusedLeases();
+
+        assertThat(sharedTokens()).isGreaterThanOrEqualTo(TOKENS_PER_MINUTE - REFILL_SLACK);
+        assertThat(sharedRequests()).isEqualTo(REQUESTS_PER_MINUTE);
+    }
+
+    @Test
+    void completedCallSettlesActualUsage() {
+        Reservation reservation = reserve(Priority.INTERACTIVE);
+
+        governor.finish(reservation, true, SignalType.ON_COMPLETE, new OpenAiResponseDecoder.Usage(30, 20, 50));
+        governor.returnUnusedLeases();
+
+        assertThat(sharedTokens()).isBetween(TOKENS_PER_MINUTE - 50, TOKENS_PER_MINUTE - 50 + REFILL_SLACK);
+    }
+
+    @Test
+    void overdrawBeyondLocalLeaseIsTakenFromSharedBucket() {
+        Reservation reservation = reserve(Priority.INTERACTIVE);
+
+        governor.finish(reservation, true, SignalType.ON_COMPLETE, new OpenAiResponseDecoder.Usage(1_500, 600, 2_100));
+        governor.returnUnusedLeases();
+
+        assertThat(sharedTokens()).isBetween(TOKENS_PER_MINUTE - 2_100, TOKENS_PER_MINUTE - 2_100 + REFILL_SLACK);
+    }
+
+    @Test
+    void backgroundCallsBypassLocalLease() {
+        reserve(Priority.BACKGROUND);
+
+        assertThat(leases("tokens")).isZero();
+        assertThat(sharedTokens()).isBetween(TOKENS_PER_MINUTE - ESTIMATED, TOKENS_PER_MINUTE - ESTIMATED + REFILL_SLACK);
+    }
+
+    @Test
+    void shedsWhenSharedBucketIsExhausted() {
+        Map<String, Object> oversized = Map.of("messages", List.of(), "max_tokens", 20_000);
+        StepVerifier.create(governor.reserve(oversized, Priority.INTERACTIVE))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        StepVerifier.create(governor.reserve(oversized, Priority.INTERACTIVE))
+                .expectError(ServiceUnavailableException.class)
+                .verify();
+        assertThat(meterRegistry.get("llm.quota.shed").tag("priority", "interactive").counter().count())
+                .isEqualTo(1);
+    }
+
+    private Reservation reserve(Priority priority) {
+        Map<String, Object> body = Map.of(
+                "messages", List.of(Map.of("role", "user", "content", "hi")),
+                "max_tokens", 100);
+        Reservation reservation = governor.reserve(body, priority).block();
+        assertThat(reservation).isNotNull();
+        assertThat(reservation.tokens()).isEqualTo(ESTIMATED);
+        return reservation;
+    }
+
+    private long sharedTokens() {
+        return sharedBuckets.get("openai:tpm").getAvailableTokens();
+    }
+
+    private long sharedRequests() {
+        return sharedBuckets.get("openai:rpm").getAvailableTokens();
+    }
+
+    private double leases(String bucket) {
+        return meterRegistry.get("llm.quota.leases").tag("bucket", bucket).counter().count();
+    }
+
+    /**
+     * 인스턴스들이 공유하는 버킷 대신 같은 키에 같은 로컬 버킷을 돌려주는 저장소
+     */
+    private final class SharedBucketStore implements BucketStore {
+
+        @Override
+        public Bucket resolve(String key, BucketConfiguration configuration) {
+            return resolvePinned(key, configuration);
+        }
+
+        @Override
+        public Bucket resolvePinned(String key, BucketConfiguration configuration) {
+            return sharedBuckets.computeIfAbsent(key, k -> {
+                LocalBucketBuilder builder = Bucket.builder();
+                for (Bandwidth bandwidth : configuration.getBandwidths()) {
+                    builder.addLimit(bandwidth);
+                }
+                return builder.build();
+            });
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.JacksonConfig;
+import moleep.screenmate.dto.llm.LlmGenerateResponse;
+import moleep.screenmate.exception.BadRequestException;
+import moleep.screenmate.validation.ActionWhitelistValidator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OpenAiResponseDecoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OpenAiResponseDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new OpenAiResponseDecoder(new JacksonConfig().objectMapper(), new ActionWhitelistValidator(),
+                meterRegistry);
+    }
+
+    @Test
+    void decodesContentAndUsage() {
+        String content = """
+                {"message":"안녕!","emotion":"happy","screenDescription":null,"intimacyDelta":0.5,\
+                "actions":[{"type":"SPEAK","params":[{"key":"text","value":"hi"},{"key":"duration","value":3}]}]}""";
+        String response = """
+                {"id":"chatcmpl-1","choices":[{"index":0,"message":{"role":"assistant","content":%s,"refusal":null}}],\
+                "usage":{"prompt_tokens":120,"completion_tokens":30,"total_tokens":150,\
+                "prompt_tokens_details":{"cached_tokens":64}}}""".formatted(quote(content));
+
+        OpenAiResponseDecoder.Completion completion = decoder.decodeCompletion(response);
+
+        LlmGenerateResponse reply = decoder.decodeContent(completion.content());
+        assertThat(reply.getMessage()).isEqualTo("안녕!");
+        assertThat(reply.getEmotion()).isEqualTo("happy");
+        assertThat(reply.getScreenDescription()).isNull();
+        assertThat(reply.getIntimacyDelta()).isEqualTo(0.5);
+        assertThat(reply.getActions()).singleElement().satisfies(action -> {
+            assertThat(action.getType()).isEqualTo("SPEAK");
+            assertThat(action.getParams()).isEqualTo(Map.of("text", "hi", "duration", 3));
+        });
+        assertThat(completion.usage()).isEqualTo(new OpenAiResponseDecoder.Usage(120, 30, 150));
+        assertThat(meterRegistry.counter("llm.response.parse", "result", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void dropsActionsOutsideWhitelist() {
+        LlmGenerateResponse reply = decoder.decodeContent("""
+                {"message":"hi","actions":[{"type":"DELETE_FILES","params":[]},{"type":"emote","params":[]}]}""");
+
+        assertThat(reply.getActions()).extracting(LlmGenerateResponse.Action::getType).containsExactly("emote");
+    }
+
+    @Test
+    void truncatesLongScreenDescription() {
+        LlmGenerateResponse reply = decoder.decodeContent(
+                "{\"message\":\"hi\",\"screenDescription\":\"" + "a".repeat(400) + "\"}");
+
+        assertThat(reply.getScreenDescription()).hasSize(300);
+    }
+
+    @Test
+    void returnsEmptyReplyForBlankContent() {
+        OpenAiResponseDecoder.Completion completion = decoder.decodeCompletion(
+                "{\"choices\":[{\"message\":{\"content\":null}}]}");
+        LlmGenerateResponse reply = decoder.decodeContent(completion.content());
+
+        assertThat(reply.getMessage()).isNull();
+        assertThat(reply.getActions()).isEmpty();
+        assertThat(completion.usage()).isEqualTo(new OpenAiResponseDecoder.Usage(0, 0, 0));
+    }
+
+    @Test
+    void keepsPlainTextContentForSummaries() {
+        OpenAiResponseDecoder.Completion completion = decoder.decodeCompletion(
+                "{\"choices\":[{\"message\":{\"content\":\"요약 문장.\"}}],\"usage\":{\"total_tokens\":42}}");
+
+        assertThat(completion.content()).isEqualTo("요약 문장.");
+        assertThat(completion.usage().totalTokens()).isEqualTo(42);
+    }
+
+    @Test
+    void rejectsWrongContentTypes() {
+        assertThatThrownBy(() -> decoder.decodeContent("{\"message\":\"hi\",\"intimacyDelta\":\"0.5\"}"))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(meterRegistry.counter("llm.response.parse", "result", "failure").count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsRefusal() {
+        assertThatThrownBy(() -> decoder.decodeCompletion(
+                "{\"choices\":[{\"message\":{\"content\":null,\"refusal\":\"I can't help with that\"}}]}"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsMissingChoices() {
+        assertThatThrownBy(() -> decoder.decodeCompletion("{\"choices\":[],\"usage\":{\"total_tokens\":1}}"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void rejectsMalformedResponseBody() {
+        assertThatThrownBy(() -> decoder.decodeCompletion("not json"))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private String quote(String text) {
+        return "\"" + text.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
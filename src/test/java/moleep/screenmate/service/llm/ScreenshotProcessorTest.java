@@ -0,0 +1,65 @@
+package moleep.screenmate.service.llm;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.ScreenshotProperties;
+import moleep.screenmate.exception.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScreenshotProcessorTest {
+
+    private ScreenshotProperties properties;
+    private ScreenshotProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ScreenshotProperties();
+        processor = new ScreenshotProcessor(properties, new SimpleMeterRegistry());
+        processor.initMetrics();
+    }
+
+    @Test
+    void downscalesToMaxDimension() throws IOException {
+        properties.setMaxDimension(64);
+
+        ProcessedScreenshot processed = processor.process(png(400, 200));
+
+        BufferedImage sent = ImageIO.read(new ByteArrayInputStream(
+                Base64.getDecoder().decode(serialized(processed.image()))));
+        assertThat(sent.getWidth()).isEqualTo(64);
+        assertThat(sent.getHeight()).isEqualTo(32);
+        assertThat(processed.hash()).isNotNull();
+    }
+
+    @Test
+    void rejectsImagesAbovePixelCapBeforeDecoding() throws IOException {
+        properties.setMaxPixels(100 * 100);
+
+        assertThatThrownBy(() -> processor.process(png(101, 100)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("101x100");
+    }
+
+    private static MockMultipartFile png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return new MockMultipartFile("screenshot", "screen.png", "image/png", out.toByteArray());
+    }
+
+    private static String serialized(ImageDataUrl image) throws IOException {
+        String json = new ObjectMapper().writeValueAsString(image);
+        return json.substring(json.indexOf(',') + 1, json.length() - 1);
+    }
+}
@@ -0,0 +1,75 @@
+package moleep.screenmate.service.llm;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StreamingMessageExtractorTest {
+
+    @Test
+    void extractsMessageFromSingleChunk() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        String out = extractor.feed("{\"emotion\":\"happy\",\"message\":\"Hello there\",\"actions\":[]}");
+
+        assertThat(out).isEqualTo("Hello there");
+    }
+
+    @Test
+    void emitsMessageIncrementallyAcrossChunks() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        assertThat(extractor.feed("{\"mess")).isEmpty();
+        assertThat(extractor.feed("age\": \"Hel")).isEqualTo("Hel");
+        assertThat(extractor.feed("lo")).isEqualTo("lo");
+        assertThat(extractor.feed("!\", \"emotion\": \"happy\"}")).isEqualTo("!");
+    }
+
+    @Test
+    void decodesEscapesSplitAcrossChunks() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        StringBuilder out = new StringBuilder();
+        for (String chunk : new String[]{"{\"message\":\"a\\", "nb \\\"q\\\" caf\\u00", "e9 \\\\\"}"}) {
+            out.append(extractor.feed(chunk));
+        }
+
+        assertThat(out.toString()).isEqualTo("a\nb \"q\" café \\");
+    }
+
+    @Test
+    void ignoresNestedMessageKeys() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        String out = extractor.feed(
+                "{\"meta\":{\"message\":\"nested\"},\"actions\":[{\"message\":\"inner\"}],\"message\":\"top\"}");
+
+        assertThat(out).isEqualTo("top");
+    }
+
+    @Test
+    void ignoresMessageTextUsedAsValue() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        String out = extractor.feed("{\"emotion\":\"message\",\"intimacyDelta\":0.1,\"message\":\"real\"}");
+
+        assertThat(out).isEqualTo("real");
+    }
+
+    @Test
+    void ignoresNonStringMessageValue() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        String out = extractor.feed("{\"message\":null,\"emotion\":\"calm\"}");
+
+        assertThat(out).isEmpty();
+    }
+
+    @Test
+    void stopsAfterMessageCompletes() {
+        StreamingMessageExtractor extractor = new StreamingMessageExtractor();
+
+        assertThat(extractor.feed("{\"message\":\"done\",")).isEqualTo("done");
+        assertThat(extractor.feed("\"message\":\"again\"}")).isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+package moleep.screenmate.service.llm;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import moleep.screenmate.config.OpenAiProperties;
+import moleep.screenmate.config.PromptProperties;
+import moleep.screenmate.domain.character.Character;
+import moleep.screenmate.domain.conversation.CharacterConversation;
+import moleep.screenmate.domain.memory.CharacterQaMemory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SystemPromptBuilderTest {
+
+    // 예산은 섹션별 토큰 합으로 계산하므로 전체를 한 번에 센 값과 경계에서 몇 토큰 다를 수 있다
+    private static final int SECTION_SLACK = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private PromptProperties promptProperties;
+    private TokenCounter tokenCounter;
+    private SystemPromptBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        promptProperties = new PromptProperties();
+        tokenCounter = new TokenCounter(new OpenAiProperties());
+        builder = new SystemPromptBuilder(tokenCounter, promptProperties, meterRegistry);
+        builder.init();
+    }
+
+    @Test
+    void promptsForDifferentCharactersShareStaticPrefixBytes() {
+        byte[] prefix = SystemPromptBuilder.STATIC_PREFIX.getBytes(StandardCharsets.UTF_8);
+
+        String mochi = builder.build(character("모찌", "고양이", 3), memory(Map.of("food", "라떼")),
+                List.of(turn(CharacterConversation.Role.USER, "안녕")), null);
+        String dubu = builder.build(character("두부", "강아지", 1), null, List.of(), "터미널이 열려 있다");
+
+        assertThat(mochi).isNotEqualTo(dubu);
+        assertThat(Arrays.copyOf(mochi.getBytes(StandardCharsets.UTF_8), prefix.length)).isEqualTo(prefix);
+        assertThat(Arrays.copyOf(dubu.getBytes(StandardCharsets.UTF_8), prefix.length)).isEqualTo(prefix);
+    }
+
+    @Test
+    void prefixVersionIsHashOfStaticPrefix() throws Exception {
+        String expected = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(SystemPromptBuilder.STATIC_PREFIX.getBytes(StandardCharsets.UTF_8))).substring(0, 12);
+
+        assertThat(meterRegistry.get("llm.prompt.prefix.tokens").tag("version", expected).gauge().value())
+                .isEqualTo(tokenCounter.count(SystemPromptBuilder.STATIC_PREFIX));
+
+        // 같은 앞부분이면 인스턴스가 달라도 버전이 같다
+        SimpleMeterRegistry otherRegistry = new SimpleMeterRegistry();
+        new SystemPromptBuilder(tokenCounter, promptProperties, otherRegistry).init();
+        assertThat(otherRegistry.get("llm.prompt.prefix.tokens").tag("version", expected).gauge()).isNotNull();
+    }
+
+    @Test
+    void staysWithinBudgetWithLargeMemoryAndHistory() {
+        Map<String, String> qaData = new LinkedHashMap<>();
+        for (int i = 0; i < 100; i++) {
+            qaData.put("fact_" + i, longText("좋아하는 것 " + i + " ", 2000));
+        }
+
+        String prompt = builder.build(character("모찌", "고양이", 2), memory(qaData), turns(20, 40), "IDE 화면");
+
+        assertThat(tokenCounter.count(prompt)).isLessThanOrEqualTo(promptProperties.getMaxTokens() + SECTION_SLACK);
+        assertThat(prompt).contains("IDE 화면");
+    }
+
+    @Test
+    void keepsNewestTurnsAndDropsOldest() {
+        List<ConversationTurn> turns = turns(20, 40);
+        promptProperties.setMaxTokens(prefixTokens() + 300);
+
+        String prompt = builder.build(character("모찌", "고양이", 1), null, turns, null);
+
+        assertThat(prompt).contains(turns.get(19).content()).doesNotContain(turns.get(0).content());
+        int kept = (int) turns.stream().filter(turn -> prompt.contains(turn.content())).count();
+        assertThat(kept).isBetween(1, 19);
+        // 남은 대화는 가장 최근 kept개이고 시간순으로 출력된다
+        List<ConversationTurn> newest = turns.subList(turns.size() - kept, turns.size());
+        assertThat(newest).allSatisfy(turn -> assertThat(prompt).contains(turn.content()));
+        for (int i = 1; i < newest.size(); i++) {
+            assertThat(prompt.indexOf(newest.get(i - 1).content())).isLessThan(prompt.indexOf(newest.get(i).content()));
+        }
+    }
+
+    @Test
+    void truncatesOversizeSummaryInsteadOfDroppingIt() {
+        String summary = longText("사용자는 마감 때문에 바쁘다. ", 20_000);
+
+        String prompt = builder.build(character("모찌", "고양이", 1),
+                memory(Map.of(ConversationSummarizer.SUMMARY_KEY, summary)), List.of(), null);
+
+        assertThat(prompt).contains("대화 요약(오래된 기억):\n" + summary.substring(0, 100))
+                .doesNotContain(summary);
+        assertThat(tokenCounter.count(prompt)).isLessThanOrEqualTo(promptProperties.getMaxTokens() + SECTION_SLACK);
+    }
+
+    @Test
+    void cutsMemoryBeforeSummaryAndTurns() {
+        Map<String, String> qaData = new LinkedHashMap<>();
+        qaData.put(ConversationSummarizer.SUMMARY_KEY, "사용자는 라떼를 좋아한다.");
+        for (int i = 0; i < 100; i++) {
+            qaData.put("fact_" + i, longText("기억 " + i + " ", 2000));
+        }
+        List<ConversationTurn> turns = turns(20, 40);
+
+        String prompt = builder.build(character("모찌", "고양이", 1), memory(qaData), turns, null);
+
+        assertThat(prompt).contains("사용자는 라떼를 좋아한다.");
+        assertThat(turns).allSatisfy(turn -> assertThat(prompt).contains(turn.content()));
+        long keptFacts = qaData.keySet().stream().filter(key -> prompt.contains("- " + key + ": ")).count();
+        assertThat(keptFacts).isLessThan(100);
+    }
+
+    private int prefixTokens() {
+        return tokenCounter.count(SystemPromptBuilder.STATIC_PREFIX);
+    }
+
+    private List<ConversationTurn> turns(int count, int length) {
+        List<ConversationTurn> turns = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CharacterConversation.Role role = i % 2 == 0
+                    ? CharacterConversation.Role.USER : CharacterConversation.Role.ASSISTANT;
+            turns.add(turn(role, longText("turn-" + i + " ", length)));
+        }
+        return turns;
+    }
+
+    private String longText(String seed, int length) {
+        return seed.repeat(length / seed.length() + 1).substring(0, length);
+    }
+
+    private Character character(String name, String species, int stageIndex) {
+        return Character.builder()
+                .id(UUID.randomUUID())
+                .name(name)
+                .species(species)
+                .stageIndex(stageIndex)
+                .build();
+    }
+
+    private CharacterQaMemory memory(Map<String, String> qaData) {
+        return CharacterQaMemory.builder().qaData(new LinkedHashMap<>(qaData)).build();
+    }
+
+    private ConversationTurn turn(CharacterConversation.Role role, String content) {
+        return new ConversationTurn(UUID.randomUUID(), role, content);
+    }
+}